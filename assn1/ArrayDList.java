@@ -0,0 +1,148 @@
+/*
+Program Description: ArrayDList is a list of Strings with the same operations as DList but the elements are kept
+					 next to each other in one growable array instead of a DNode for each element. Going through
+					 the list or cloning it reads the array from start to end instead of following a pointer
+					 for every element.
+					 A position in the list is the index of an element(0 is the first) instead of a DNode.
+					 There is free room before the first element and after the last one, so adding at either
+					 end is O(1) amortised. Adding or removing in the middle moves the elements on the shorter
+					 side of the position along by one.
+
+*/
+public class ArrayDList {
+  protected String[] elements;	// the elements are elements[head] to elements[head+size-1]
+  protected int head;		// index in the array of the first element
+  protected int size;		// number of elements
+
+  /** Constructor that creates an empty list */
+  public ArrayDList() {
+    this(16);
+  }
+  /** Constructor that creates an empty list with room for capacity elements */
+  public ArrayDList(int capacity) {
+    elements = new String[Math.max(2, capacity)];
+    head = elements.length/2;
+    size = 0;
+  }
+  /** Returns the number of elements in the list */
+  public int size() { return size; }
+
+  /** Returns whether the list is empty */
+  public boolean isEmpty() { return (size == 0); }
+
+  /** Returns the first element of the list */
+  public String getFirst() throws IllegalStateException {
+    if (isEmpty()) throw new IllegalStateException("List is empty");
+    return elements[head];
+  }
+  /** Returns the last element of the list */
+  public String getLast() throws IllegalStateException {
+    if (isEmpty()) throw new IllegalStateException("List is empty");
+    return elements[head+size-1];
+  }
+  /** Returns the element at position i. An error occurs if there is
+    * no element at i */
+  public String get(int i) throws IndexOutOfBoundsException {
+    checkPosition(i);
+    return elements[head+i];
+  }
+  /** Replaces the element at position i */
+  public void set(int i, String e) throws IndexOutOfBoundsException {
+    checkPosition(i);
+    elements[head+i] = e;
+  }
+
+  /** Inserts the given element before position i. An error occurs if
+    * there is no element at i */
+  public void addBefore(int i, String e) throws IndexOutOfBoundsException {
+    checkPosition(i);
+    insert(i, e);
+  }
+
+  /** Inserts the given element after position i. An error occurs if
+    * there is no element at i */
+  public void addAfter(int i, String e) throws IndexOutOfBoundsException {
+    checkPosition(i);
+    insert(i+1, e);
+  }
+
+  /** Inserts the given element at the head of the list */
+  public void addFirst(String e) {
+    if (head == 0) makeRoom();
+    head--;
+    elements[head] = e;
+    size++;
+  }
+
+  /** Inserts the given element at the tail of the list */
+  public void addLast(String e) {
+    if (head+size == elements.length) makeRoom();
+    elements[head+size] = e;
+    size++;
+  }
+
+  /** Removes the element at position i and returns it. An error occurs
+    * if there is no element at i */
+  public String remove(int i) throws IndexOutOfBoundsException {
+    checkPosition(i);
+    String removed = elements[head+i];
+    // close the gap from whichever side has fewer elements to move
+    if (i < size/2) {
+      System.arraycopy(elements, head, elements, head+1, i);
+      elements[head] = null;
+      head++;
+    } else {
+      System.arraycopy(elements, head+i+1, elements, head+i, size-i-1);
+      elements[head+size-1] = null;
+    }
+    size--;
+    return removed;
+  }
+
+  /** Prints every element of the list on its own line */
+  public void printList() {
+    for (int i = head; i < head+size; i++)
+      System.out.println(elements[i]);
+  }
+
+  /** Creates and returns a clone of the given list. The elements are
+    * copied in one block */
+  public static ArrayDList cloneList(ArrayDList u) {
+    ArrayDList clone = new ArrayDList(u.size+2);
+    clone.head = (clone.elements.length-u.size)/2;
+    System.arraycopy(u.elements, u.head, clone.elements, clone.head, u.size);
+    clone.size = u.size;
+    return clone;
+  }
+
+  /** Inserts e so that it ends up at position i(0 <= i <= size) */
+  private void insert(int i, String e) {
+    // move the elements on the shorter side of i to make a gap
+    if (i < size/2) {
+      if (head == 0) makeRoom();
+      System.arraycopy(elements, head, elements, head-1, i);
+      head--;
+    } else {
+      if (head+size == elements.length) makeRoom();
+      System.arraycopy(elements, head+i, elements, head+i+1, size-i);
+    }
+    elements[head+i] = e;
+    size++;
+  }
+
+  /** Puts the elements in the middle of the array so there is room at
+    * both ends. The array doubles if it is more than half full */
+  private void makeRoom() {
+    int length = (2*size < elements.length) ? elements.length : Math.max(2*elements.length, size+2);
+    String[] bigger = new String[length];
+    int newHead = (bigger.length-size)/2;
+    System.arraycopy(elements, head, bigger, newHead, size);
+    elements = bigger;
+    head = newHead;
+  }
+
+  private void checkPosition(int i) throws IndexOutOfBoundsException {
+    if (i < 0 || i >= size) throw new IndexOutOfBoundsException
+      ("No element at position " + i + " of a list with " + size + " elements");
+  }
+}
@@ -0,0 +1,122 @@
+/*
+Program Description: Compares MyDlist(a DNode for every element) with ArrayDList(the elements in one array).
+					 For each size a list of random words is built both ways and the following are timed:
+					 1. adding every word at the tail
+					 2. going through every element from the first to the last
+					 3. cloning the list with cloneList
+					 Each measurement is run a few times to warm up the JIT before the timed runs. It only needs
+					 the JDK so it can be run offline:
+
+					 javac *.java
+					 java DListBenchmark [sizes]
+					 e.g. java DListBenchmark 100000 1000000
+
+*/
+import java.util.*;
+
+public class DListBenchmark {
+
+	private final static int WARMUP = 3;
+	private final static int RUNS = 5;
+
+	//results are added to this so the JIT can't remove the work being measured
+	private static long sink;
+
+	public static void main(String[] args) {
+		int[] sizes = {1000, 100000, 1000000};
+		if(args.length>0) {
+			sizes = new int[args.length];
+			for(int x=0; x<args.length; x++) {
+				sizes[x] = Integer.parseInt(args[x]);
+			}
+		}
+
+		System.out.println("benchmark  list          elements      result");
+		for(int n : sizes) {
+			final String[] words = randomWords(n);
+			final MyDlist linked = new MyDlist();
+			final ArrayDList array = new ArrayDList();
+			for(int x=0; x<n; x++) {
+				linked.addLast(new DNode(words[x], null, null));
+				array.addLast(words[x]);
+			}
+
+			measure("addLast", "MyDlist", n, new Runnable() {
+				public void run() {
+					MyDlist list = new MyDlist();
+					for(int x=0; x<words.length; x++) {
+						list.addLast(new DNode(words[x], null, null));
+					}
+					sink += list.size();
+				}
+			});
+			measure("addLast", "ArrayDList", n, new Runnable() {
+				public void run() {
+					ArrayDList list = new ArrayDList();
+					for(int x=0; x<words.length; x++) {
+						list.addLast(words[x]);
+					}
+					sink += list.size();
+				}
+			});
+			//the same walk as printList but adding up the lengths instead of printing
+			measure("iterate", "MyDlist", n, new Runnable() {
+				public void run() {
+					if(linked.size()>0) {
+						DNode node = linked.getFirst();
+						while(linked.hasNext(node)) {
+							sink += node.getElement().length();
+							node = node.getNext();
+						}
+					}
+				}
+			});
+			measure("iterate", "ArrayDList", n, new Runnable() {
+				public void run() {
+					for(int x=0; x<array.size(); x++) {
+						sink += array.get(x).length();
+					}
+				}
+			});
+			measure("clone", "MyDlist", n, new Runnable() {
+				public void run() {
+					sink += MyDlist.cloneList(linked).size();
+				}
+			});
+			measure("clone", "ArrayDList", n, new Runnable() {
+				public void run() {
+					sink += ArrayDList.cloneList(array).size();
+				}
+			});
+		}
+		System.out.println("(sink " + sink + ")");
+	}
+
+//n words made of a few random letters so they are spread around memory like words read from a file
+	private static String[] randomWords(int n) {
+		Random random = new Random(n);
+		String[] words = new String[n];
+		for(int x=0; x<n; x++) {
+			char[] letters = new char[3+random.nextInt(6)];
+			for(int y=0; y<letters.length; y++) {
+				letters[y] = (char)('a'+random.nextInt(26));
+			}
+			words[x] = new String(letters);
+		}
+		return words;
+	}
+
+//runs the benchmark WARMUP times without timing it and then RUNS times with timing and prints the average time
+	private static void measure(String name, String list, int n, Runnable benchmark) {
+		for(int x=0; x<WARMUP; x++) {
+			benchmark.run();
+		}
+		long start = System.nanoTime();
+		for(int x=0; x<RUNS; x++) {
+			benchmark.run();
+		}
+		double perOp = (double) (System.nanoTime()-start)/RUNS;
+		System.out.format("%-10s %-12s %9d  %10.3f ms/op  %6.2f ns/element%n", name, list, n, perOp/1e6, perOp/n);
+	}
+
+}
@@ -9,9 +9,18 @@ Program Description: MyDlist is a subclass of DList which implements its own fun
 */
 import java.util.*;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 
 public class MyDlist extends DList {
 
+//union and intersection use a hash table when the two lists have more than this many elements between them
+	private final static int HASH_CUTOFF = 32;
+//the sorted union and intersection of files write the words to temporary files in sorted runs of about this many
+//bytes(counting the String objects) so files bigger than memory can be used
+	public static long memoryBudget = 64L<<20;
+
 //Standard constructor that calls the super-classes constructor to
 //create an empty doubly linked list.
 	public MyDlist() {
@@ -63,12 +72,51 @@ public class MyDlist extends DList {
 		return clone;
 	}
 /*
- * Analysis of union = 6 + 5N + 5N + (8N^2 + 13N + 7) + 1
+ * Analysis of union:
+ * F(N) = O(N) expected for lists with more than HASH_CUTOFF elements between them(see hashUnion)
+ * F(N) = O(N^2) for smaller lists(see nestedUnion)
+ */
+	public static MyDlist union(MyDlist u, MyDlist v) {
+		//for small lists the nested loops are cheaper than creating a hash table
+		if(u.size()+v.size() <= HASH_CUTOFF) {
+			return nestedUnion(u, v);
+		}
+		return hashUnion(u, v);
+	}
+
+/*
+ * Analysis of hashUnion:
+ * F(N) = O(N) expected
+ * 
+ * Each element of u and then v is looked up in the hash table once. The table has at least twice as many slots as
+ * there are elements so each look up only checks a few slots on average.
+ */
+//the union with the same order as nestedUnion. The first time an element is seen it is added to the union
+//and every time after that it is skipped
+	private static MyDlist hashUnion(MyDlist u, MyDlist v) {
+		MyDlist aUnion = new MyDlist();
+		StringTable seen = new StringTable(u.size()+v.size());
+		MyDlist[] lists = {u, v};
+		
+		for(int l=0; l<lists.length; l++) {
+			DNode node = lists[l].header.next;
+			while(node!=lists[l].trailer) {
+				if(seen.add(node.getElement())) {
+					aUnion.addLast(new DNode(node.getElement(), null, null));
+				}
+				node = node.next;
+			}
+		}
+		return aUnion;
+	}
+
+/*
+ * Analysis of nestedUnion = 6 + 5N + 5N + (8N^2 + 13N + 7) + 1
  *                   = 8N^2 + 23N + 14
  *                   
  * F(N) = N^2
  */
-	public static MyDlist union(MyDlist u, MyDlist v) {
+	private static MyDlist nestedUnion(MyDlist u, MyDlist v) {
 		//create a new empty MyDlist named union which will be the union of u and v
 		MyDlist aUnion = new MyDlist();
 		//create nodes to refer to the first Node of u and v
@@ -192,13 +240,45 @@ public class MyDlist extends DList {
 		return intersect;
 		//Analysis = 6 + Analysis of actualIntersection. 3 for the refences and comparison of the if conditional
 		//2 for method call and assigning the return value to intersect and 1 for the final return value.
+		//For lists with more than HASH_CUTOFF elements between them actualIntersection is O(N) expected.
 	}
 	
+/*
+ * Analysis of hashIntersection:
+ * F(N) = O(N) expected
+ * 
+ * The elements of b are counted in a hash table in one pass and then each element of s is looked up once.
+ */
+//the intersection with the same result as the nested loops in actualIntersection. Every element of s is added
+//once for each time it is in b, in the order of s
+	private static MyDlist hashIntersection(MyDlist s, MyDlist b) {
+		MyDlist intersect = new MyDlist();
+		StringTable counts = new StringTable(b.size());
+		DNode node = b.header.next;
+		while(node != b.trailer) {
+			counts.add(node.getElement());
+			node = node.next;
+		}
+		node = s.header.next;
+		while(node != s.trailer) {
+			int times = counts.count(node.getElement());
+			for(int x=0; x<times; x++) {
+				intersect.addLast(new DNode(node.getElement(), null, null));
+			}
+			node = node.next;
+		}
+		return intersect;
+	}
+
 
 /*
  * Analysis = 8(N^2) + 4N + 4
  */
 	private static MyDlist actualIntersection(MyDlist s, MyDlist b) {
+		//for small lists the nested loops are cheaper than creating a hash table
+		if(s.size()+b.size() > HASH_CUTOFF) {
+			return hashIntersection(s, b);
+		}
 		MyDlist intersect = new MyDlist();
 		DNode sNode = s.header.next;
 		DNode bNode = null;
@@ -229,6 +309,128 @@ public class MyDlist extends DList {
 		//Analysis = 1
 	}
 	
+/*
+ * Analysis of sortedUnion and sortedIntersection:
+ * F(N) = O(NlogN)
+ * 
+ * The elements of each list are copied into an array and sorted once which is O(NlogN). Then one pass goes through
+ * both sorted arrays at the same time which is O(N).
+ */
+//the union of u and v in sorted order. Unlike union the result is sorted instead of being in the order of u then v,
+//but it has the same elements(each one once)
+	public static MyDlist sortedUnion(MyDlist u, MyDlist v) {
+		return mergeLists(u, v, true);
+	}
+
+//the elements that are in both u and v in sorted order. Each element is only added once
+	public static MyDlist sortedIntersection(MyDlist u, MyDlist v) {
+		return mergeLists(u, v, false);
+	}
+
+	private static MyDlist mergeLists(MyDlist u, MyDlist v, boolean union) {
+		try {
+			return merge(new SortedWords(toSortedArray(u)), new SortedWords(toSortedArray(v)), union);
+		} catch (IOException e) {
+			//the words are all in memory so nothing is read from a file
+			return null;
+		}
+	}
+
+/*
+ * Analysis of sortedUnion and sortedIntersection for files:
+ * N = number of words in the files, B = number of words that fit in memoryBudget
+ * F(N) = O(NlogN)
+ * 
+ * The words of a file are read in runs of at most B words. Each run is sorted(O(BlogB)) and if the file has more than
+ * one run it is written to a temporary file. There are N/B runs which are merged by keeping the next word of every
+ * run in a priority queue, so the merge is O(Nlog(N/B)). Only one run and the next word of every other run are ever
+ * in memory at once.
+ */
+//the union of the words in the files f1 and f2 in sorted order. The words are read the same way as the
+//MyDlist(String f) constructor reads them but the files can be too big to hold in memory
+	public static MyDlist sortedUnion(String f1, String f2) {
+		return mergeFiles(f1, f2, true);
+	}
+
+//the words that are in both of the files f1 and f2 in sorted order. Each word is only added once
+	public static MyDlist sortedIntersection(String f1, String f2) {
+		return mergeFiles(f1, f2, false);
+	}
+
+	private static MyDlist mergeFiles(String f1, String f2, boolean union) {
+		SortedWords first = null;
+		SortedWords second = null;
+		MyDlist result = null;
+		try {
+			first = SortedWords.fromFile(f1);
+			second = SortedWords.fromFile(f2);
+			result = merge(first, second, union);
+		} catch (FileNotFoundException e) {
+			System.out.println("Cant find this file");
+		} catch (IOException e) {
+			System.out.println("Can't read");
+		} finally {
+			//the temporary files of the runs are deleted when the words are closed
+			if(first!=null) {
+				first.close();
+			}
+			if(second!=null) {
+				second.close();
+			}
+		}
+		return result;
+	}
+
+//the elements of the list sorted in an array
+	private static String[] toSortedArray(MyDlist u) {
+		String[] elements = new String[u.size()];
+		DNode node = u.header.next;
+		for(int x=0; x<elements.length; x++) {
+			elements[x] = node.getElement();
+			node = node.next;
+		}
+		Arrays.sort(elements);
+		return elements;
+	}
+
+//one pass through two sorted sequences of words. For a union every word from either of them is added and for an
+//intersection only the words that are in both. A word that is repeated is only added once
+	private static MyDlist merge(SortedWords a, SortedWords b, boolean union) throws IOException {
+		MyDlist result = new MyDlist();
+		String x = a.next();
+		String y = b.next();
+		while(x!=null || y!=null) {
+			int compare;
+			if(x==null) {
+				compare = 1;
+			} else if(y==null) {
+				compare = -1;
+			} else {
+				compare = x.compareTo(y);
+			}
+			if(compare==0) {
+				result.addLast(new DNode(x, null, null));
+				x = a.next();
+				y = b.next();
+			} else if(compare<0) {
+				if(union) {
+					result.addLast(new DNode(x, null, null));
+				} else if(y==null) {
+					break;
+				}
+				x = a.next();
+			} else {
+				if(union) {
+					result.addLast(new DNode(y, null, null));
+				} else if(x==null) {
+					break;
+				}
+				y = b.next();
+			}
+		}
+		return result;
+	}
+
 	private void readFromStdin() {
 		String input = null;
 		Scanner sc = new Scanner(new ShieldInputStream(System.in));
@@ -242,6 +444,105 @@ public class MyDlist extends DList {
 		sc.close();
 	}
 	
+/*
+ * Analysis of loadWords:
+ * B = number of bytes in the file, N = number of words
+ * F(B) = O(B) expected
+ * 
+ * Every byte is looked at once and added to the hash of the word it is in. Each word is looked up in the WordTable
+ * once which compares its bytes with at most a few words on average. Only the first copy of each different word
+ * becomes a String. The nodes are linked to each other as they are made and joined to the list once at the end.
+ */
+//creates a list of the words in the file f. Unlike the MyDlist(String f) constructor the words can be separated by
+//any whitespace(spaces, tabs and new lines) and there are never any empty words. A word that is repeated uses the
+//same String every time. Returns an empty list if the file can't be read
+	public static MyDlist loadWords(String f) {
+		MyDlist list = new MyDlist();
+		FileInputStream inputFile = null;
+		WordTable table = new WordTable();
+		//the bytes of the word being read. A word can be split between two reads of the file
+		byte[] word = new byte[64];
+		int length = 0;
+		int hash = 0;
+		//the nodes are linked together here before they are added to the list
+		DNode first = null;
+		DNode last = null;
+		int count = 0;
+		
+		try {
+			inputFile = new FileInputStream(f);
+		} catch (FileNotFoundException e) {
+			System.out.println("Cant find this file");
+			return list;
+		}
+		try {
+			FileChannel channel = inputFile.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocate(1<<20);
+			byte[] bytes = buffer.array();
+			int read;
+			//the extra pass after the end of the file finishes the last word
+			boolean more = true;
+			while(more) {
+				read = channel.read(buffer);
+				if(read==-1) {
+					more = false;
+					read = 1;
+					bytes[0] = ' ';
+				} else {
+					read = buffer.position();
+				}
+				for(int x=0; x<read; x++) {
+					byte b = bytes[x];
+					if(b==' ' || b=='\n' || b=='\t' || b=='\r' || b=='\f' || b==0x0B) {
+						if(length>0) {
+							DNode newNode = new DNode(table.intern(word, length, hash), last, null);
+							if(last==null) {
+								first = newNode;
+							} else {
+								last.next = newNode;
+							}
+							last = newNode;
+							count++;
+							length = 0;
+							hash = 0;
+						}
+					} else {
+						if(length==word.length) {
+							word = Arrays.copyOf(word, 2*length);
+						}
+						word[length] = b;
+						length++;
+						hash = 31*hash+b;
+					}
+				}
+				buffer.clear();
+			}
+		} catch (IOException e) {
+			System.out.println("Can't read");
+			return list;
+		}
+		try {
+			inputFile.close();
+		} catch (IOException e) {
+			System.out.println("cant close");
+		}
+		list.appendAll(first, last, count);
+		return list;
+	}
+
+//puts the chain of count nodes from first to last(which are already linked to each other) at the tail of the list
+	private void appendAll(DNode first, DNode last, int count) {
+		if(count==0) {
+			return;
+		}
+		DNode tail = trailer.prev;
+		first.prev = tail;
+		tail.next = first;
+		last.next = trailer;
+		trailer.prev = last;
+		size += count;
+	}
+
 	private void readFromFile(String file) {
 		String[] elements;
 		String input = null;
@@ -279,6 +580,284 @@ public class MyDlist extends DList {
 		}
 	}
 	
+//The words of a list or a file in sorted order without repeats, given one at a time by next.
+//A file with more words than fit in the memoryBudget of MyDlist is read in runs. Each run is sorted and written to a
+//temporary file and next merges the runs together
+	private static class SortedWords {
+		//the sorted words when they all fit in memory
+		private String[] words;
+		private int position;
+		//the next word of each run ordered by the word, or null if the words are in memory
+		private PriorityQueue<Run> runs;
+		private ArrayList<Run> allRuns;
+		private String last;
+		
+		private SortedWords(String[] sorted) {
+			this.words = sorted;
+			this.position = 0;
+		}
+		
+		private SortedWords(ArrayList<Run> allRuns) throws IOException {
+			this.allRuns = allRuns;
+			this.runs = new PriorityQueue<Run>();
+			for(Run run : allRuns) {
+				if(run.advance()) {
+					runs.add(run);
+				}
+			}
+		}
+		
+		//reads the words of the file f into sorted runs
+		private static SortedWords fromFile(String f) throws IOException {
+			ArrayList<String> run = new ArrayList<String>();
+			ArrayList<Run> spilled = new ArrayList<Run>();
+			long bytes = 0;
+			String input = null;
+			BufferedReader inputFile = new BufferedReader(new FileReader(f));
+			SortedWords result = null;
+			
+			try {
+				try {
+					while((input = inputFile.readLine())!=null) {
+						String[] elements = input.split(" ");
+						for(int x=0; x<elements.length; x++) {
+							run.add(elements[x]);
+							//about 40 bytes for each String and its array plus 2 bytes for each character
+							bytes += 40+2*elements[x].length();
+							if(bytes > memoryBudget) {
+								spilled.add(Run.write(run));
+								run.clear();
+								bytes = 0;
+							}
+						}
+					}
+				} finally {
+					inputFile.close();
+				}
+				if(spilled.isEmpty()) {
+					String[] sorted = run.toArray(new String[run.size()]);
+					Arrays.sort(sorted);
+					result = new SortedWords(sorted);
+				} else {
+					if(!run.isEmpty()) {
+						spilled.add(Run.write(run));
+					}
+					result = new SortedWords(spilled);
+				}
+			} finally {
+				//if reading failed part way nothing will close the runs that were already spilled so delete them here
+				if(result==null) {
+					for(Run spilledRun : spilled) {
+						spilledRun.close();
+					}
+				}
+			}
+			return result;
+		}
+		
+		//the next word in sorted order or null if there are no more
+		private String next() throws IOException {
+			String word;
+			do {
+				if(runs==null) {
+					if(position==words.length) {
+						return null;
+					}
+					word = words[position];
+					position++;
+				} else {
+					Run run = runs.poll();
+					if(run==null) {
+						return null;
+					}
+					word = run.word;
+					if(run.advance()) {
+						runs.add(run);
+					}
+				}
+			} while(word.equals(last));
+			last = word;
+			return word;
+		}
+		
+		//closes and deletes the temporary files
+		private void close() {
+			if(allRuns!=null) {
+				for(Run run : allRuns) {
+					run.close();
+				}
+			}
+		}
+	}
+	
+//a sorted run of words in a temporary file with one word on each line
+	private static class Run implements Comparable<Run> {
+		private File file;
+		private BufferedReader reader;
+		private String word;
+		
+		//sorts the words and writes them to a new temporary file
+		private static Run write(ArrayList<String> words) throws IOException {
+			Run run = new Run();
+			String[] sorted = words.toArray(new String[words.size()]);
+			Arrays.sort(sorted);
+			run.file = File.createTempFile("mydlist", ".run");
+			try {
+				BufferedWriter out = new BufferedWriter(new FileWriter(run.file));
+				try {
+					for(int x=0; x<sorted.length; x++) {
+						//a word never has a new line in it because the words are split from lines
+						if(x==0 || !sorted[x].equals(sorted[x-1])) {
+							out.write(sorted[x]);
+							out.newLine();
+						}
+					}
+				} finally {
+					out.close();
+				}
+				run.reader = new BufferedReader(new FileReader(run.file));
+			} finally {
+				//the run is only returned once it can be read so delete the file if it couldn't be written
+				if(run.reader==null) {
+					run.file.delete();
+				}
+			}
+			return run;
+		}
+		
+		//moves to the next word of the run. Returns false when the run is finished
+		private boolean advance() throws IOException {
+			word = reader.readLine();
+			return word!=null;
+		}
+		
+		public int compareTo(Run other) {
+			return word.compareTo(other.word);
+		}
+		
+		private void close() {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				System.out.println("cant close");
+			}
+			file.delete();
+		}
+	}
+	
+//A set of strings that also counts how many times each string has been added. It uses open addressing:
+//the strings are kept in one array and a string that collides with another goes in the next free slot.
+//The table is sized from the number of strings it will hold so it never has to grow
+	private static class StringTable {
+		private String[] keys;
+		private int[] counts;
+		private int mask;
+		
+		private StringTable(int expected) {
+			//at least twice as many slots as strings so the table is never more than half full
+			int capacity = Integer.highestOneBit(Math.max(2, expected)*2-1)*2;
+			this.keys = new String[capacity];
+			this.counts = new int[capacity];
+			this.mask = capacity-1;
+		}
+		
+		//the slot that holds the string or the empty slot where it would go
+		private int slot(String key) {
+			int h = key.hashCode();
+			//mix the high bits into the low bits which are used to pick the slot
+			int i = (h ^ (h>>>16)) & mask;
+			while(keys[i]!=null && !keys[i].equals(key)) {
+				i = (i+1) & mask;
+			}
+			return i;
+		}
+		
+		//adds the string and returns true if it wasn't in the table before
+		private boolean add(String key) {
+			int i = slot(key);
+			counts[i]++;
+			if(keys[i]==null) {
+				keys[i] = key;
+				return true;
+			}
+			return false;
+		}
+		
+		//the number of times the string has been added
+		private int count(String key) {
+			return counts[slot(key)];
+		}
+	}
+	
+//Gives one String for all the copies of a word. The words are looked up by their bytes so a word that has been
+//seen before doesn't need a new String. It uses open addressing like StringTable and doubles in size when it is
+//half full
+	private static class WordTable {
+		private byte[][] keys;
+		private String[] words;
+		private int[] hashes;
+		private int entries;
+		
+		private WordTable() {
+			this.keys = new byte[1024][];
+			this.words = new String[1024];
+			this.hashes = new int[1024];
+			this.entries = 0;
+		}
+		
+		//the String for the first length bytes of word. hash must be the hash of those bytes
+		private String intern(byte[] word, int length, int hash) {
+			int mask = keys.length-1;
+			int i = (hash ^ (hash>>>16)) & mask;
+			while(keys[i]!=null) {
+				if(hashes[i]==hash && keys[i].length==length && sameBytes(keys[i], word, length)) {
+					return words[i];
+				}
+				i = (i+1) & mask;
+			}
+			keys[i] = Arrays.copyOf(word, length);
+			words[i] = new String(keys[i], StandardCharsets.UTF_8);
+			hashes[i] = hash;
+			entries++;
+			String result = words[i];
+			if(2*entries > keys.length) {
+				grow();
+			}
+			return result;
+		}
+		
+		private static boolean sameBytes(byte[] a, byte[] b, int length) {
+			for(int x=0; x<length; x++) {
+				if(a[x]!=b[x]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		//moves every word into a table twice the size
+		private void grow() {
+			byte[][] oldKeys = keys;
+			String[] oldWords = words;
+			int[] oldHashes = hashes;
+			keys = new byte[2*oldKeys.length][];
+			words = new String[keys.length];
+			hashes = new int[keys.length];
+			int mask = keys.length-1;
+			for(int x=0; x<oldKeys.length; x++) {
+				if(oldKeys[x]!=null) {
+					int i = (oldHashes[x] ^ (oldHashes[x]>>>16)) & mask;
+					while(keys[i]!=null) {
+						i = (i+1) & mask;
+					}
+					keys[i] = oldKeys[x];
+					words[i] = oldWords[x];
+					hashes[i] = oldHashes[x];
+				}
+			}
+		}
+	}
+	
 //This is a decorator class that is designed to take in System.in
 //but makes sure that it doesn't close. This is being implemented
 //because closing a scanner will result in System.in being closed
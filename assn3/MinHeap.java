@@ -0,0 +1,260 @@
+/*
+ * Program Description: The heap TaskScheduler and OnlineTaskScheduler keep their waiting tasks in. Each entry is an
+ *                      int key and an int value so no object is created for an entry.
+ *
+ */
+
+import java.util.Arrays;
+
+//a heap data structure that uses the minimum value to sort itself
+//it maintains a height of logn by making sure each level of the tree
+//is full before moving onto the next level.
+//The heap only holds ints: each entry is a key and a value(the index of a task) which are kept in two parallel arrays
+//so no objects are created for the entries. Each node has ARITY children, which with 4 children makes the tree half
+//as tall as a binary tree and keeps the children of a node next to each other in memory.
+class MinHeap {
+	final static int ARITY = 4;
+	
+	int[] keys;
+	int[] values;
+	int entries;
+	int arity;
+//the candidate positions and holes used by removeMinK. They are kept between calls so they are only created once
+	int[] candidates;
+	int[] holes;
+/*
+ * Analysis of constructor:
+ * f(n) = O(n) to create the two arrays
+ */
+	public MinHeap(int size) {
+		this(size, ARITY);
+	}
+	
+	public MinHeap(int size, int arity) {
+		this.keys = new int[Math.max(1, size)];
+		this.values = new int[Math.max(1, size)];
+		this.entries = 0;
+		this.arity = arity;
+	}
+	
+//makes the arrays big enough to hold size entries. They at least double so adding n entries one at a time is O(n)
+	public void ensureCapacity(int size) {
+		if(size > keys.length) {
+			int capacity = Math.max(size, 2*keys.length);
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+/*
+ * Analysis of insert:
+ * f(n) = O(logn)
+ * 
+ * The new entry starts at the end of the array and its parents are moved down until its place is found.
+ * Each parent is moved once instead of being swapped.
+ */
+	public void insert(int key, int value) {
+		int pos = entries;
+		entries++;
+		//move the hole up while the parent is bigger than the new key
+		while(pos>0) {
+			int parent = (pos-1)/arity;
+			if(keys[parent] <= key) {
+				break;
+			}
+			keys[pos] = keys[parent];
+			values[pos] = values[parent];
+			pos = parent;
+		}
+		keys[pos] = key;
+		values[pos] = value;
+	}
+/*
+ * Analysis of removeMin:
+ * f(n) = O(logn)
+ * 
+ * The last entry is taken out and moved down from the root into the hole the minimum leaves behind.
+ */
+//removes the entry with the smallest key and returns its value or -1 if the heap is empty
+	public int removeMin() {
+		if(entries==0) {
+			return -1;
+		}
+		int result = values[0];
+		entries--;
+		if(entries>0) {
+			siftDown(0, keys[entries], values[entries]);
+		}
+		return result;
+	}
+	
+//the smallest key in the heap. The heap must not be empty
+	public int minKey() {
+		return keys[0];
+	}
+/*
+ * Analysis of insertAll:
+ * b = number of entries being inserted
+ * f(n,b) = O(b + logn*logn)
+ * 
+ * The entries are put at the end of the array and then only the ancestors of the new entries are moved down, from the
+ * bottom of the tree up(the same way a heap is built from an array). There are about b/2 + b/4 + ... + logn ancestors
+ * and most of them are near the bottom of the tree so they don't have far to go.
+ */
+//inserts the entries (keys[i], i) for every i from start up to end in one go
+	public void insertAll(int[] newKeys, int start, int end) {
+		int count = end-start;
+		if(count<=1) {
+			if(count==1) {
+				insert(newKeys[start], start);
+			}
+			return;
+		}
+		int first = entries;
+		for(int i=start; i<end; i++) {
+			keys[entries] = newKeys[i];
+			values[entries] = i;
+			entries++;
+		}
+		//the parents of the new entries, then their parents and so on up to the root
+		int lo = (first-1)/arity;
+		int hi = (entries-2)/arity;
+		if(first==0) {
+			lo = 0;
+		}
+		while(hi>=lo) {
+			for(int pos=hi; pos>=lo; pos--) {
+				siftDown(pos, keys[pos], values[pos]);
+			}
+			if(lo==0) {
+				break;
+			}
+			hi = Math.min((hi-1)/arity, lo-1);
+			lo = (lo-1)/arity;
+		}
+	}
+/*
+ * Analysis of removeMinK:
+ * f(n,k) = O(klogk + klogn)
+ * 
+ * The k smallest entries are found with a walk from the root: the smallest entry not yet taken is always a child of an
+ * entry that has been taken, so the children of each taken entry are kept in a small heap of candidates. The taken
+ * entries are at the top of the tree(the parent of a taken entry is always taken) so each hole they leave is filled
+ * from the end of the array and then moved down, deepest hole first.
+ */
+//removes up to k of the smallest entries and puts their values into out from the smallest to largest key.
+//returns the number of entries that were removed
+	public int removeMinK(int k, int[] out) {
+		if(k > entries) {
+			k = entries;
+		}
+		if(k<=1) {
+			if(k==1) {
+				out[0] = removeMin();
+			}
+			return k;
+		}
+		if(candidates==null || candidates.length < k*arity+2) {
+			candidates = new int[k*arity+2];
+			holes = new int[k];
+		}
+		//walk the heap from the root taking the smallest candidate each time
+		int numCandidates = pushCandidate(0, 0);
+		for(int taken=0; taken<k; taken++) {
+			int pos = candidates[1];
+			numCandidates = popCandidate(numCandidates);
+			out[taken] = values[pos];
+			holes[taken] = pos;
+			for(int child=arity*pos+1; child<=arity*pos+arity && child<entries; child++) {
+				numCandidates = pushCandidate(numCandidates, child);
+			}
+		}
+		
+		//the entries at the end of the array that weren't taken fill the holes inside the heap
+		int newEntries = entries-k;
+		Arrays.sort(holes, 0, k);
+		int tail = entries-1;
+		int taken = k-1;
+		int filled = 0;
+		for(int i=0; i<k && holes[i]<newEntries; i++) {
+			//skip the end positions that are holes themselves
+			while(taken>=0 && holes[taken]==tail) {
+				taken--;
+				tail--;
+			}
+			keys[holes[i]] = keys[tail];
+			values[holes[i]] = values[tail];
+			tail--;
+			filled++;
+		}
+		entries = newEntries;
+		//the parent of every hole was also a hole so moving down from the deepest hole up fixes the heap
+		for(int i=filled-1; i>=0; i--) {
+			siftDown(holes[i], keys[holes[i]], values[holes[i]]);
+		}
+		return k;
+	}
+
+//add a position to the heap of candidates used by removeMinK. The candidates are ordered by the key at that
+//position. Returns the new number of candidates
+	private int pushCandidate(int numCandidates, int pos) {
+		numCandidates++;
+		int child = numCandidates;
+		while(child>1 && keys[candidates[child/2]] > keys[pos]) {
+			candidates[child] = candidates[child/2];
+			child = child/2;
+		}
+		candidates[child] = pos;
+		return numCandidates;
+	}
+
+//remove the smallest candidate(candidates[1]). Returns the new number of candidates
+	private int popCandidate(int numCandidates) {
+		int last = candidates[numCandidates];
+		numCandidates--;
+		int parent = 1;
+		while(parent*2 <= numCandidates) {
+			int child = parent*2;
+			if(child < numCandidates && keys[candidates[child+1]] < keys[candidates[child]]) {
+				child++;
+			}
+			if(keys[candidates[child]] >= keys[last]) {
+				break;
+			}
+			candidates[parent] = candidates[child];
+			parent = child;
+		}
+		candidates[parent] = last;
+		return numCandidates;
+	}
+/*
+ * Analysis of siftDown:
+ * f(n) = O(arity * logn)
+ * 
+ * The height of the tree is log(n) with base arity and at each level the smallest of the children is found.
+ */
+//put the entry (key, value) into the hole at pos, moving the smallest child up into the hole while it is smaller
+	private void siftDown(int pos, int key, int value) {
+		while(true) {
+			int first = arity*pos+1;
+			if(first >= entries) {
+				break;
+			}
+			int last = Math.min(first+arity, entries);
+			int minChild = first;
+			for(int child=first+1; child<last; child++) {
+				if(keys[child] < keys[minChild]) {
+					minChild = child;
+				}
+			}
+			if(keys[minChild] >= key) {
+				break;
+			}
+			keys[pos] = keys[minChild];
+			values[pos] = values[minChild];
+			pos = minChild;
+		}
+		keys[pos] = key;
+		values[pos] = value;
+	}
+	
+}
@@ -0,0 +1,181 @@
+/*
+ * Program Description: A scheduler that is kept running while tasks keep arriving, instead of reading them all from a
+ *                      file first. Tasks are given to submit with a name, a release time and a deadline and the clock is
+ *                      moved forward with advanceTo. Each time unit is scheduled the same way as createValidSchedule in
+ *                      TaskScheduler: the released tasks wait in a heap ordered by deadline and the m tasks with the
+ *                      earliest deadlines start.
+ *
+ *                      A start time is final once the clock has moved past it, because a task can only be submitted
+ *                      with a release time at or after the clock. Final start times are given to the listener straight
+ *                      away, and so is any task whose deadline has been missed. A task is forgotten as soon as it has
+ *                      started or missed its deadline, so memory only depends on the number of tasks waiting.
+ *
+ */
+
+import java.util.Arrays;
+
+public class OnlineTaskScheduler {
+
+	//is told about every task that starts and every task that misses its deadline
+	public interface ScheduleListener {
+		void started(String name, int startTime);
+		void missed(String name, int deadline, int time);
+	}
+
+	private int cores;
+	private ScheduleListener listener;
+	//every time before this has been scheduled
+	private int time;
+	private boolean feasible;
+
+	//the tasks that have been submitted but not started are kept in slots. A slot is reused once its task is gone
+	private String[] names;
+	private int[] deadlines;
+	private int[] freeSlots;
+	private int numFree;
+	private int used;
+
+	//the tasks that haven't been released yet ordered by release time, and the released tasks ordered by deadline
+	private MinHeap pending;
+	private MinHeap ready;
+	//buffer for the tasks given a core at the current time. It grows with the number of tasks that are ready instead
+	//of being as big as the number of cores, which can be far more than there are tasks
+	private int[] running;
+
+//throws IllegalArgumentException if there isn't at least 1 core, because no task could ever start
+	public OnlineTaskScheduler(int cores, int startTime, ScheduleListener listener) throws IllegalArgumentException {
+		if(cores<=0) {
+			throw new IllegalArgumentException("The number of cores must be at least 1 but is " + cores);
+		}
+		this.cores = cores;
+		this.listener = listener;
+		this.time = startTime;
+		this.feasible = true;
+		this.names = new String[16];
+		this.deadlines = new int[16];
+		this.freeSlots = new int[16];
+		this.numFree = 0;
+		this.used = 0;
+		this.pending = new MinHeap(16);
+		this.ready = new MinHeap(16);
+		this.running = new int[Math.min(cores, 16)];
+	}
+
+/*
+ * Analysis of submit:
+ * n = number of tasks that are waiting
+ * f(n) = O(logn) to insert the task into the heap of pending tasks
+ */
+//adds a task to the scheduler. Returns false if the task is not valid or is released before the current time
+	public boolean submit(String name, int release, int deadline) {
+		if(name==null || release<0 || deadline<1 || release>=deadline) {
+			System.out.println("input error when reading the attributes of the task " + name);
+			return false;
+		}
+		if(release<time) {
+			System.out.println("Task " + name + " is released before the current time " + time);
+			return false;
+		}
+		int slot = takeSlot();
+		names[slot] = name;
+		deadlines[slot] = deadline;
+		pending.ensureCapacity(pending.entries+1);
+		pending.insert(release, slot);
+		return true;
+	}
+
+/*
+ * Analysis of advanceTo:
+ * k = number of tasks that are released or started before newTime
+ * f(k) = O(klogn)
+ *
+ * When there are no released tasks waiting the clock jumps straight to the next release time(the same as
+ * createValidSchedule), so the loop runs at most 2k times no matter how far the clock moves.
+ */
+//schedules every time before newTime. After this no more tasks can be submitted with a release time before newTime
+	public void advanceTo(int newTime) {
+		while(time<newTime) {
+			//put every task released by now into the deadline heap
+			while(pending.entries>0 && pending.minKey()<=time) {
+				int slot = pending.removeMin();
+				ready.ensureCapacity(ready.entries+1);
+				ready.insert(deadlines[slot], slot);
+			}
+			//the number of cores dictates how many tasks we can pull out of the deadline heap at this time
+			int take = Math.min(cores, ready.entries);
+			if(take>running.length) {
+				running = new int[Math.min(cores, Math.max(take, 2*running.length))];
+			}
+			int taken = ready.removeMinK(take, running);
+			for(int c=0; c<taken; c++) {
+				int slot = running[c];
+				//if the current time is more than the tasks deadline then it can't be scheduled
+				if(deadlines[slot]<=time) {
+					feasible = false;
+					listener.missed(names[slot], deadlines[slot], time);
+				} else {
+					listener.started(names[slot], time);
+				}
+				freeSlot(slot);
+			}
+			//if no tasks are waiting then nothing can happen until the next release so jump straight to it
+			if(ready.entries==0) {
+				if(pending.entries==0) {
+					time = newTime;
+				} else {
+					time = Math.min(newTime, pending.minKey());
+				}
+			} else {
+				time++;
+			}
+		}
+	}
+
+//schedules every task that has been submitted. The clock ends up after the last start time
+	public void drain() {
+		while(pending.entries>0 || ready.entries>0) {
+			if(ready.entries==0) {
+				advanceTo(pending.minKey()+1);
+			} else {
+				advanceTo(time+1);
+			}
+		}
+	}
+
+//every time before this has been scheduled
+	public int currentTime() {
+		return time;
+	}
+
+//the number of tasks that have been submitted but not started yet
+	public int waiting() {
+		return pending.entries+ready.entries;
+	}
+
+//false once any task has missed its deadline
+	public boolean isFeasible() {
+		return feasible;
+	}
+
+//a free slot for a new task. The columns double in size when every slot is in use
+	private int takeSlot() {
+		if(numFree>0) {
+			numFree--;
+			return freeSlots[numFree];
+		}
+		if(used==names.length) {
+			names = Arrays.copyOf(names, 2*used);
+			deadlines = Arrays.copyOf(deadlines, 2*used);
+			freeSlots = Arrays.copyOf(freeSlots, 2*used);
+		}
+		used++;
+		return used-1;
+	}
+
+	private void freeSlot(int slot) {
+		names[slot] = null;
+		freeSlots[numFree] = slot;
+		numFree++;
+	}
+
+}
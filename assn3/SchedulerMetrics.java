@@ -0,0 +1,129 @@
+/*
+ * Program Description: Measurements of one run of TaskScheduler.scheduler. A SchedulerMetrics is given to the
+ *                      scheduler and it records:
+ *                      1. how many nanoseconds each phase took(handleArgs, getAllTasks, sortTaskByRelease,
+ *                         createValidSchedule and outputToFile)
+ *                      2. the most tasks that were waiting in the deadline heap at once
+ *                      3. the number of time units where no task started(idle ticks)
+ *                      4. a histogram of how many cores were busy in each time unit
+ *
+ *                      The counters are plain fields that are only updated when a SchedulerMetrics is given, so a run
+ *                      without one does no extra work. The results can be written out as JSON.
+ *
+ */
+
+import java.io.*;
+
+public class SchedulerMetrics {
+
+	final static int HANDLE_ARGS = 0;
+	final static int GET_ALL_TASKS = 1;
+	final static int SORT_TASK_BY_RELEASE = 2;
+	final static int CREATE_VALID_SCHEDULE = 3;
+	final static int OUTPUT_TO_FILE = 4;
+	private final static String[] PHASES = {"handleArgs", "getAllTasks", "sortTaskByRelease", "createValidSchedule",
+			"outputToFile"};
+
+	//the nanoseconds spent in each phase. A phase that didn't run stays at 0
+	public long[] phaseNanos;
+	public int tasks;
+	public int cores;
+	public boolean feasible;
+	public int peakHeapSize;
+	//the time units from the first release to the last start, and how many of them had no task starting
+	public long ticks;
+	public long idleTicks;
+	//utilisation[c] is the number of time units where c cores were busy
+	public long[] utilisation;
+
+	public SchedulerMetrics() {
+		this.phaseNanos = new long[PHASES.length];
+		this.utilisation = new long[1];
+	}
+
+//called by the scheduler once it knows how many tasks and cores there are
+	void start(int numTasks, int numCores) {
+		this.tasks = numTasks;
+		this.cores = numCores;
+		//no more than numTasks cores can ever be busy at once
+		this.utilisation = new long[Math.min(numCores, numTasks)+1];
+	}
+
+//adds the time since start to the phase and returns the time now so it can be used as the start of the next phase
+	long lap(int phase, long start) {
+		long now = System.nanoTime();
+		phaseNanos[phase] += now-start;
+		return now;
+	}
+
+//a time unit where busy cores were given a task and waiting tasks were in the deadline heap before they were taken
+	void tick(int busy, int waiting) {
+		ticks++;
+		utilisation[busy]++;
+		if(busy==0) {
+			idleTicks++;
+		}
+		if(waiting>peakHeapSize) {
+			peakHeapSize = waiting;
+		}
+	}
+
+//time units that were skipped because no task was waiting
+	void idle(long units) {
+		ticks += units;
+		idleTicks += units;
+		utilisation[0] += units;
+	}
+
+/*
+ * Analysis of toJson:
+ * f(m) = O(m) where m = number of cores
+ */
+//the metrics as a JSON object
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"tasks\":").append(tasks);
+		json.append(",\"cores\":").append(cores);
+		json.append(",\"feasible\":").append(feasible);
+		json.append(",\"phaseNanos\":{");
+		for(int i=0; i<PHASES.length; i++) {
+			if(i>0) {
+				json.append(',');
+			}
+			json.append('"').append(PHASES[i]).append("\":").append(phaseNanos[i]);
+		}
+		json.append("},\"peakHeapSize\":").append(peakHeapSize);
+		json.append(",\"ticks\":").append(ticks);
+		json.append(",\"idleTicks\":").append(idleTicks);
+		json.append(",\"utilisation\":[");
+		for(int i=0; i<utilisation.length; i++) {
+			if(i>0) {
+				json.append(',');
+			}
+			json.append(utilisation[i]);
+		}
+		json.append("]}");
+		return json.toString();
+	}
+
+//writes the metrics as JSON to the file f. Returns false if the file can't be written
+	public boolean writeJson(String f) {
+		Writer out = null;
+		try {
+			out = new FileWriter(f, false);
+			out.write(toJson());
+			out.write('\n');
+		} catch (IOException e) {
+			System.out.println("Cannot write the metrics to file");
+			return false;
+		}
+		try {
+			out.close();
+		} catch (IOException e) {
+			System.out.println("Cannot close the metrics file");
+			return false;
+		}
+		return true;
+	}
+
+}
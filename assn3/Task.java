@@ -0,0 +1,36 @@
+/*
+ * Program Description: A task that TaskScheduler schedules. It has a name, a release time, a deadline, the number of
+ *                      time units it runs for and, once it has been scheduled, its start time.
+ *
+ */
+
+class Task {
+//each task has a name, release time, deadline time and if its schedulable then a starttime
+	public String name;
+	public int release;
+	public int deadline;
+	public int startTime;
+//the number of time units the task runs for. Only scheduleWithDurations uses it, every other schedule is for 1
+	public int duration;
+/*
+ * Each of these constructors is f(n) = 3
+ */
+	public Task() {
+		this.name = null;
+		this.release = -1;
+		this.deadline = -1;
+		this.duration = 1;
+	}
+	
+	public Task(String name, int release, int deadline) {
+		this(name, release, deadline, 1);
+	}
+	
+	public Task(String name, int release, int deadline, int duration) {
+		this.name = name;
+		this.release = release;
+		this.deadline = deadline;
+		this.duration = duration;
+	}
+	
+}
@@ -0,0 +1,90 @@
+/*
+ * Program Description: The tasks of a task file kept in growable columns of ints and one byte array of names, so
+ *                      reading a file doesn't create an object for each task.
+ *
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//the tasks read from the file kept in columns instead of one object per task. The names are stored one after the
+//other in a single byte array and each task keeps where its name starts and how long it is. At the beginning of the
+//program we don't know how many tasks there are, so every column doubles in size when it is full
+class TaskColumns {
+	public byte[] names;
+	public int namesSize;
+	public int[] nameStart;
+	public int[] nameLength;
+	public int[] release;
+	public int[] deadline;
+	public int size;
+
+	public TaskColumns() {
+		this.names = new byte[256];
+		this.namesSize = 0;
+		this.nameStart = new int[16];
+		this.nameLength = new int[16];
+		this.release = new int[16];
+		this.deadline = new int[16];
+		this.size = 0;
+	}
+
+//add a byte to the end of the names. The task it belongs to is added with add once the whole task has been read
+	public void appendName(byte b) {
+		if(namesSize == names.length) {
+			names = Arrays.copyOf(names, 2*names.length);
+		}
+		names[namesSize] = b;
+		namesSize++;
+	}
+
+//add a task whose name is the nameLength bytes of names from nameStart
+	public void add(int start, int length, int releaseTime, int deadlineTime) {
+		if(size == release.length) {
+			int capacity = 2*size;
+			nameStart = Arrays.copyOf(nameStart, capacity);
+			nameLength = Arrays.copyOf(nameLength, capacity);
+			release = Arrays.copyOf(release, capacity);
+			deadline = Arrays.copyOf(deadline, capacity);
+		}
+		nameStart[size] = start;
+		nameLength[size] = length;
+		release[size] = releaseTime;
+		deadline[size] = deadlineTime;
+		size++;
+	}
+
+//add all the tasks of other to the end of these columns
+	public void append(TaskColumns other) {
+		if(size+other.size > release.length) {
+			int capacity = Math.max(2*release.length, size+other.size);
+			nameStart = Arrays.copyOf(nameStart, capacity);
+			nameLength = Arrays.copyOf(nameLength, capacity);
+			release = Arrays.copyOf(release, capacity);
+			deadline = Arrays.copyOf(deadline, capacity);
+		}
+		if(namesSize+other.namesSize > names.length) {
+			names = Arrays.copyOf(names, Math.max(2*names.length, namesSize+other.namesSize));
+		}
+		System.arraycopy(other.names, 0, names, namesSize, other.namesSize);
+		System.arraycopy(other.nameLength, 0, nameLength, size, other.size);
+		System.arraycopy(other.release, 0, release, size, other.size);
+		System.arraycopy(other.deadline, 0, deadline, size, other.size);
+		//the names of other now start after the names that were already here
+		for(int i=0; i<other.size; i++) {
+			nameStart[size+i] = other.nameStart[i]+namesSize;
+		}
+		size += other.size;
+		namesSize += other.namesSize;
+	}
+
+//the name of task i. Names only ever contain letters and numbers so each byte is one character
+	public String name(int i) {
+		return new String(names, nameStart[i], nameLength[i], StandardCharsets.US_ASCII);
+	}
+
+//create a Task object for task i
+	public Task task(int i) {
+		return new Task(name(i), release[i], deadline[i]);
+	}
+}
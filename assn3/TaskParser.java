@@ -0,0 +1,151 @@
+/*
+ * Program Description: Reads the tasks out of the bytes of a task file into TaskColumns and checks that every task
+ *                      is written correctly. The bytes can be given in pieces of any size.
+ *
+ */
+
+import java.nio.charset.StandardCharsets;
+
+//reads the tasks out of the bytes of a task file without any regular expressions. Each task is a name, a release time
+//and a deadline. An attribute is any run of letters, numbers and '-' and everything else separates them, and all three
+//attributes of a task must be on the same line. The names and numbers are checked as they are read:
+//  - a valid name starts with a letter and only has letters and numbers
+//  - a valid release time only has numbers and is >=0
+//  - a valid deadline only has numbers, is more than 0 and is more than the release time
+//The bytes can be given to feed in pieces of any size, so an attribute can be split between two calls
+class TaskParser {
+	private final static int MAX_ATTRIBUTES = 3;
+
+	//the error message for the first task that was not written correctly or null if there hasn't been one
+	public String error;
+
+	public TaskColumns tasks;
+	//the attribute of the current task that is being read(0 = name, 1 = release, 2 = deadline)
+	private int attribute;
+	private boolean inAttribute;
+	//false once any attribute of the current task has been found to be invalid
+	private boolean valid;
+	private int nameStart;
+	private long value;
+	private int releaseTime;
+
+	public TaskParser(TaskColumns tasks) {
+		this.tasks = tasks;
+		this.error = null;
+		this.attribute = 0;
+		this.inAttribute = false;
+		this.valid = true;
+	}
+
+/*
+ * Analysis of feed:
+ * f(n) = O(n) where n = len
+ *
+ * Each byte is only looked at once and only needs a few comparisons. A name byte is also copied into the columns.
+ */
+//parse len bytes of b starting at off. Returns false if a task that is not written correctly has been found
+	public boolean feed(byte[] b, int off, int len) {
+		int end = off+len;
+		for(int i=off; i<end && error==null; i++) {
+			byte c = b[i];
+			if((c>='a' && c<='z') || (c>='A' && c<='Z')) {
+				startAttribute();
+				if(attribute==0) {
+					tasks.appendName(c);
+				} else {
+					valid = false;
+				}
+			} else if(c>='0' && c<='9') {
+				startAttribute();
+				if(attribute==0) {
+					//a name can't start with a number
+					if(tasks.namesSize==nameStart) {
+						valid = false;
+					}
+					tasks.appendName(c);
+				} else if(value<=Integer.MAX_VALUE) {
+					//once the number is too big for an int it is invalid so stop adding digits to it
+					value = 10*value+(c-'0');
+				}
+			} else if(c=='-') {
+				startAttribute();
+				if(attribute==0) {
+					tasks.appendName(c);
+				}
+				valid = false;
+			} else {
+				if(inAttribute) {
+					endAttribute();
+				}
+				if(c=='\n' || c=='\r') {
+					endLine();
+				}
+			}
+		}
+		return error==null;
+	}
+
+//true once a task that is not written correctly has been found
+	public boolean stopped() {
+		return error!=null;
+	}
+
+//called once all the bytes have been given to feed to finish the last task
+	public void finish() {
+		if(error==null && inAttribute) {
+			endAttribute();
+		}
+		if(error==null) {
+			endLine();
+		}
+	}
+
+	private void startAttribute() {
+		if(inAttribute) {
+			return;
+		}
+		inAttribute = true;
+		if(attribute==0) {
+			nameStart = tasks.namesSize;
+			valid = true;
+		} else {
+			value = 0;
+		}
+	}
+
+	private void endAttribute() {
+		inAttribute = false;
+		if(attribute==0) {
+			attribute++;
+			return;
+		}
+		if(value>Integer.MAX_VALUE) {
+			valid = false;
+		}
+		if(attribute==1) {
+			releaseTime = (int) value;
+			attribute++;
+			return;
+		}
+		//all 3 attributes have been found so combine them into 1 task if they are valid
+		int deadlineTime = (int) value;
+		if(valid && deadlineTime>=1 && releaseTime<deadlineTime) {
+			tasks.add(nameStart, tasks.namesSize-nameStart, releaseTime, deadlineTime);
+		} else {
+			error = String.format("input error when reading the attributes of the task %s", currentName());
+		}
+		attribute = 0;
+	}
+
+	private void endLine() {
+		//if there are any attributes leftover then that means the file has not been written correctly
+		if(attribute>0) {
+			error = String.format("input  error when  reading  the  attributes  of  the  task %s", currentName());
+		}
+	}
+
+//the name of the task that is being read
+	private String currentName() {
+		return new String(tasks.names, nameStart, tasks.namesSize-nameStart, StandardCharsets.US_ASCII);
+	}
+}
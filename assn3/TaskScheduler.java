@@ -8,29 +8,48 @@
  * 
  */
 
-import java.util.regex.*;
+import java.util.Arrays;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
 public class TaskScheduler {
 	
+	//fewer tasks than this are sorted by release time with the heap
+	private final static int SMALL_SORT = 64;
+	//counting sort is used when the range of release times is less than this many times the number of tasks
+	private final static int COUNTING_FACTOR = 4;
+	//the number of bits radix sort sorts in each pass
+	private final static int RADIX_BITS = 11;
+	//the number of bytes read from the task file at a time
+	private final static int BUFFER_BYTES = 1<<16;
+	//task files with at least this many bytes are parsed by more than one thread
+	private final static long PARALLEL_BYTES = 1<<22;
+	//the number of chunks a task file is split into for each thread when it is parsed in parallel
+	private final static int CHUNKS_PER_THREAD = 4;
+	
 /*
  * Analysis of scheduler:
  * 
  * Complexity of functions used in this scheduler
  * (1) handleargs          = 7
- * (2) getAllTasks         = 69n+11
- * (3) sortTaskByRelease   = 40nlogn+43n+2(n+1)+11
- * (4) createValidSchedule = 40nlogn+59n+2(n+1)+10
+ * (2) getAllTasks         = O(b) where b is the number of bytes in the file(see its analysis)
+ * (3) sortTaskByRelease   = O(n) for counting and radix sort, O(nlogn) for small inputs(see its analysis)
+ * (4) createValidSchedule = 40nlogn+59n+2(n+1)+10(see analysis of createValidSchedule, the loop is in scheduleByDeadline)
  * (5) outputTofile        = 8n+6 
  *  
  * f(n) = (1)+(2)+(3)+(4)+(5)+15
  *      = 80nlogn + 4(n+1) + 179n + 60
  *      = O(nlogn)
  * 
- * 2 - creating a new linked list
+ * 2 - creating the columns for the tasks
  * 3 - creating 2 arrays and assigning value to num tasks
  * 2+(1) - calling the function handleArgs and using the value returned from it as a comparison
  * 1+(2) - calling the function get allTasks
- * 3 - numTasks value comes from the Linked list size and creating a new array
+ * 3 - numTasks value comes from the number of tasks in the columns and creating a new array
  * 1+(3) - calling the sortTaskByRelease function
  * 1 - creating the schedule array
  * 2+(4) - calling the createValidSchedule function and using its value as a comparison
@@ -42,32 +61,170 @@ public class TaskScheduler {
 	//where the number of tasks that are able to be handled at any one moment
 	//are dependent on the integer m. This schedule is outputed to file2.
 	public static void scheduler(String file1, String file2, int m) {
-		LinkedList Tasks = new LinkedList();
+		scheduler(file1, file2, m, null);
+	}
+
+	//the same as scheduler(file1, file2, m) but the time each phase takes and how busy the cores are is
+	//recorded in metrics. Nothing is recorded if metrics is null
+	public static void scheduler(String file1, String file2, int m, SchedulerMetrics metrics) {
+		TaskColumns Tasks = new TaskColumns();
 		Task[] sortByRelease = null;
 		Task[] schedule = null;
 		int numTasks = 0;
+		long clock = System.nanoTime();
 		//take all the arguments and find out if they are valid
 		if(!handleArgs(file1, file2, m)){
 			return;
 		}
-		//get all the tasks in the file and put them into a linked list called task.
+		clock = lap(metrics, SchedulerMetrics.HANDLE_ARGS, clock);
+		//get all the tasks in the file and put them into the columns of Tasks
 		getAllTasks(file1, Tasks);
+		clock = lap(metrics, SchedulerMetrics.GET_ALL_TASKS, clock);
 		
 		numTasks = Tasks.size;
+		if(metrics!=null) {
+			metrics.start(numTasks, m);
+		}
 		sortByRelease = new Task[numTasks];
-		//using the linked list sort the tasks by their release date
+		//using the columns sort the tasks by their release date
 		sortTaskByRelease(Tasks, sortByRelease);
+		clock = lap(metrics, SchedulerMetrics.SORT_TASK_BY_RELEASE, clock);
 
 		schedule = new Task[numTasks];
 		//using the tasks that are sorted by release date create a valid schedule
-		if(!createValidSchedule(schedule, sortByRelease, m, numTasks)) {
+		boolean valid = createValidSchedule(schedule, sortByRelease, m, numTasks, metrics);
+		clock = lap(metrics, SchedulerMetrics.CREATE_VALID_SCHEDULE, clock);
+		if(metrics!=null) {
+			metrics.feasible = valid;
+		}
+		if(!valid) {
 			System.out.println("No feasible schedule exists");
 			return;
 		} else {
 			//if their is a valid file then output each task to the file
 			outputToFile(schedule, file2);
+			lap(metrics, SchedulerMetrics.OUTPUT_TO_FILE, clock);
+		}
+	}
+
+//records the time since start against the phase if there are metrics and returns the time to start the next phase from
+	private static long lap(SchedulerMetrics metrics, int phase, long start) {
+		if(metrics==null) {
+			return start;
+		}
+		return metrics.lap(phase, start);
+	}
+/*
+ * Analysis of minimumCores:
+ * n = number of tasks
+ * p = number of threads
+ * f(n) = O(nlogn * log(n)/log(p+1))
+ *
+ * The file is read and sorted once. With at most n cores every task can start at its release time so the answer is
+ * somewhere in 1..n. Each round tries p numbers of cores spread evenly over the range that is left, one on each
+ * thread, which cuts the range into p+1 pieces. Each try is a call to scheduleByDeadline which is O(nlogn).
+ */
+	//This function takes the tasks located in file1 and finds the smallest number of cores that they can be
+	//scheduled on. The schedule for that number of cores is outputed to file2 and the number of cores is returned.
+	public static int minimumCores(String file1, String file2) {
+		TaskColumns Tasks = new TaskColumns();
+		//take all the arguments and find out if they are valid
+		if(!handleArgs(file1, file2, 1)){
+			return -1;
+		}
+		//get all the tasks in the file and sort them by their release date once for every number of cores
+		getAllTasks(file1, Tasks);
+		int numTasks = Tasks.size;
+		Task[] sortByRelease = new Task[numTasks];
+		sortTaskByRelease(Tasks, sortByRelease);
+		if(numTasks==0) {
+			outputToFile(sortByRelease, file2);
+			return 1;
+		}
+		int[] releases = new int[numTasks];
+		int[] deadlines = new int[numTasks];
+		for(int j=0; j<numTasks; j++) {
+			releases[j] = sortByRelease[j].release;
+			deadlines[j] = sortByRelease[j].deadline;
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		ScheduleBuffers best = searchMinimumCores(releases, deadlines, numTasks, threads);
+
+		Task[] schedule = new Task[numTasks];
+		for(int j=0; j<numTasks; j++) {
+			Task cTask = sortByRelease[best.order[j]];
+			cTask.startTime = best.starts[j];
+			schedule[j] = cTask;
+		}
+		outputToFile(schedule, file2);
+		return best.cores;
+	}
+
+//binary search(or a (p+1)-ary search with p threads) for the smallest number of cores with a valid schedule. Each
+//try gets its own buffers which are reused in the next rounds, except for the buffers holding the best schedule so far.
+//Returns the buffers holding the schedule for the smallest number of cores
+	private static ScheduleBuffers searchMinimumCores(final int[] releases, final int[] deadlines, final int numTasks,
+			int threads) {
+		//low cores is known to be too few and high cores is known to be enough
+		int low = 0;
+		int high = numTasks;
+		ScheduleBuffers best = null;
+		threads = Math.max(1, Math.min(threads, numTasks));
+		//one more set of buffers than threads so the best schedule never has to be overwritten
+		ScheduleBuffers[] buffers = new ScheduleBuffers[threads+1];
+		ScheduleBuffers[] tried = new ScheduleBuffers[threads];
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+		try {
+			while(high-low>1 || best==null) {
+				int tries = Math.max(1, Math.min(threads, high-low-1));
+				List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+				int next = 0;
+				for(int t=0; t<tries; t++) {
+					//spread the tries evenly over low+1..high-1. If every number of cores below high has been
+					//ruled out and high hasn't been tried yet then high is tried
+					final int cores = (high-low>1) ? low+(int)((long)(high-low)*(t+1)/(tries+1)) : high;
+					if(buffers[next]!=null && buffers[next]==best) {
+						next++;
+					}
+					if(buffers[next]==null) {
+						buffers[next] = new ScheduleBuffers(numTasks);
+					}
+					final ScheduleBuffers buffer = buffers[next];
+					next++;
+					tried[t] = buffer;
+					buffer.cores = cores;
+					results.add(pool.submit(new Callable<Boolean>() {
+						public Boolean call() {
+							return scheduleByDeadline(releases, deadlines, numTasks, cores, buffer.order, buffer.starts,
+									buffer.heap, buffer.running, null);
+						}
+					}));
+				}
+				//the tries are in increasing order of cores so the smallest one that works is the new high
+				//and the largest one that doesn't work is the new low
+				for(int t=0; t<tries; t++) {
+					if(results.get(t).get()) {
+						if(tried[t].cores<high || best==null) {
+							high = tried[t].cores;
+							best = tried[t];
+						}
+					} else {
+						low = Math.max(low, tried[t].cores);
+					}
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			System.out.println("Cannot search for the minimum number of cores");
+			System.exit(0);
+		} finally {
+			//every try has finished by now so there is nothing to interrupt
+			pool.shutdown();
 		}
+		return best;
 	}
+
 /*
  * Analysis of handleArgs:
  * f(n) = 7
@@ -104,98 +261,50 @@ public class TaskScheduler {
 	
 /*
  * Analysis of getAllTasks:
- * f(n) = 69n + 11
- * 
- * Note: this analysis assumes that for the worst case scenario each tasks attributes are on their own seperate line.
- *       each task can be reduced to 3 attributes which makes some of operations triple as a result but its still linear time.
- * 
- * (1)      
- * Start of the function has complexity of: 11 
- * 6 - assigning values to 6 variables
- * 2 - assigning a value to pattern and compiling the pattern
- * 3 - assigning a value to input file and calling two constructors
- * 
- * (2)
- * outer while loop(inputfile.readline): 13
- * 3 - the while condition which assigns a value from readLine
- * 2 - assigning a value from p matcher
- * 1 - for the while loop condition(which in this case only runs once because theres one element per line(see assumptions)
- * 3 - assigning a value to an array element from a function call to matcher
- * 2 - incrementing i
- * 1 - comparison of i>0
- * 
- * (3)
- * if condition(i == maxattributes): 30
- * 22 - for calling the valid attributes function and assigning the value to newNode
- * 1  - if comparison to null
- * 6  - adding the node to the linked list
- * 1  - making i = 0
- * 
- * 
- * Taking into account that each element of a task(3) is on its own line and there are n elements. There are 3n elements to process
- * Thus (2) has a complexity of 3n*13 = 39n (4)
- * 
- * The if condition will only run once per 3 elements. Thus it runs n times
- * Thus (3) has a complexity of 30n (5)
- * 
- * Total complexity of the function is (1)+(4)+(5) = 11+39n+30n = 69n+11
+ * b = number of bytes in the file
+ * n = number of tasks
+ * p = number of threads
+ * f(b) = O(b) or O(b/p + n) when the file is parsed in parallel
+ *
+ * The file is read into a buffer of BUFFER_BYTES at a time and every byte is looked at exactly once by the parser
+ * (see analysis of TaskParser.feed). The only things created for each task are its entries in the columns which
+ * double in size when they are full, so adding n tasks takes O(n) time in total.
+ *
+ * Files of at least PARALLEL_BYTES are split into chunks which are parsed at the same time(see analysis of
+ * getAllTasksParallel). Copying the columns of the chunks together afterwards is the only part done by one thread.
  */
-	
-	private static void getAllTasks(String f, LinkedList t) {
-		//3 atrributeds per task
-		String[] attributes = new String[3];
-		int i = 0;
-		int maxAttributes = 3;
-		String input;
-		BufferedReader inputFile = null;
-		Node newNode = null;
-		//each variable in a task is made of of alphanumeric characters
-		//there is the possibility of negative numbers so thats included for later
-		//validation purposes
-		String taskPatt = "\\s*([a-zA-Z0-9-]+)\\s*";
-		Pattern p = Pattern.compile(taskPatt);
-		
+	private static void getAllTasks(String f, TaskColumns t) {
+		FileInputStream inputFile = null;
+		String error = null;
+
 		try {
-			inputFile = new BufferedReader(new FileReader(f));
+			inputFile = new FileInputStream(f);
 		} catch (FileNotFoundException e) {
 			System.out.print("file1 does not exist");
 			System.exit(0);
 		}
-		
+
 		try {
-			//read each line of the file
-			while((input=inputFile.readLine())!=null) {
-				//match each element of a task
-				Matcher m = p.matcher(input);
-				while(m.find()) {
-					attributes[i] = m.group(1);
-					i++;
-					//if 3 valid attributes have been found combine them into 1 task
-					if(i==maxAttributes) {
-						//check to see if the attributes are valid
-						newNode = validAttributes(attributes);
-						if(newNode!=null) {
-							//add them into the linkedlist
-							t.add(newNode);
-							i = 0;
-						} else {
-							System.out.format("input error when reading the attributes of the task %s", attributes[0]);
-							System.exit(0);
-						}
-					}
-				}
-				//if there are any attributes leftover then that means the file has not been written correctly
-				if(i>0) {
-					System.out.format("input  error when  reading  the  attributes  of  the  task %s", attributes[0]);
-					System.exit(0);
-				}
+			FileChannel channel = inputFile.getChannel();
+			long size = channel.size();
+			int threads = Runtime.getRuntime().availableProcessors();
+			if(size>=PARALLEL_BYTES && threads>1) {
+				error = getAllTasksParallel(channel, size, threads, t);
+			} else {
+				TaskParser parser = new TaskParser(t);
+				parseRange(channel, 0, size, parser);
+				error = parser.error;
 			}
 		} catch (IOException e1) {
 			System.out.println("Cannot read the file");
 			System.exit(0);
 		}
-		
-		
+		//if there are any attributes that are invalid or leftover then that means the file has not been written correctly
+		if(error!=null) {
+			System.out.print(error);
+			System.exit(0);
+		}
+
 		try {
 			//close the file to make sure we have no memory leaks
 			inputFile.close();
@@ -205,95 +314,261 @@ public class TaskScheduler {
 		}
 		return;
 	}
+
 /*
- * Analysis of validAttributes:
- * f(n) = 21
- * 
- * 1 - assigning value to new node
- * 3 - pattern matching the name(comparison to return value, function call and array element access)
- * 6 - 3 for pattern matching release time + 3 for turning the value into an integer
- * 7 - 6 for pattern matching the deadline time and turning the value into an integer and 1 for comparison to 1
- * 5 - creating a new node, calling its constructor and assigning its values 
- * 
+ * Analysis of getAllTasksParallel:
+ * f(b) = O(b/p + n) with p threads
+ *
+ * There are CHUNKS_PER_THREAD chunks for each thread so a thread that finishes early can take another chunk. Each
+ * chunk reads about b/(p*CHUNKS_PER_THREAD) bytes plus the end of the line it stops in.
  */
-	public static Node validAttributes(String[] a) {
-		Node newNode = null;
-		int release;
-		int deadline;
-		//a valid name only has numbers and characters
-		if(!Pattern.matches("[A-Za-z]+[A-Za-z0-9]*", a[0])) {
-			return newNode;
-		}
-		//a valid release time only has numbers and is >=0
-		if(!Pattern.matches("\\d+", a[1])) {
-			return newNode;
-		} else {
-			release = Integer.parseInt(a[1]);
+//split the file into byte ranges and parse them on a pool of threads. The columns of the chunks are added to t in
+//the order they are in the file. Returns the error of the first task in the file that is not written correctly or
+//null if every task is valid
+	static String getAllTasksParallel(final FileChannel channel, long size, int threads, TaskColumns t) {
+		int chunks = threads*CHUNKS_PER_THREAD;
+		long chunkBytes = (size+chunks-1)/chunks;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<TaskParser>> results = new ArrayList<Future<TaskParser>>();
+		String error = null;
+
+		for(long start=0; start<size; start+=chunkBytes) {
+			final long from = start;
+			final long to = Math.min(size, start+chunkBytes);
+			results.add(pool.submit(new Callable<TaskParser>() {
+				public TaskParser call() throws IOException {
+					TaskParser parser = new TaskParser(new TaskColumns());
+					parseRange(channel, from, to, parser);
+					return parser;
+				}
+			}));
 		}
-		//a valid deadline only has numbers and is more than 0
-		if(!Pattern.matches("\\d+", a[2])) {
-			return newNode;
-		} else {
-			deadline = Integer.parseInt(a[2]);
-			if(deadline<1) {
-				return newNode;
+		try {
+			//join the chunks together in file order. The first chunk with an error has the first error in the file
+			for(Future<TaskParser> result : results) {
+				TaskParser parser = result.get();
+				if(parser.error!=null) {
+					error = parser.error;
+					break;
+				}
+				t.append(parser.tasks);
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			System.out.println("Cannot read the file");
+			System.exit(0);
+		} finally {
+			//after an error the chunks that haven't started are cancelled. The running ones are left to finish because
+			//interrupting a thread that is reading a FileChannel closes the channel, and the caller still owns it
+			for(Future<TaskParser> result : results) {
+				result.cancel(false);
+			}
+			pool.shutdown();
+			try {
+				pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				System.out.println("Cannot read the file");
+				System.exit(0);
 			}
 		}
-		//a valid task must have a release that is less than a deadline
-		if(release>=deadline) {
-			return newNode;
+		return error;
+	}
+
+/*
+ * Analysis of parseRange:
+ * f(b) = O(end-start + length of the line the range stops in)
+ */
+//parse the lines of the file that start in the bytes from start up to end. A task is always on one line, so a range
+//that doesn't start at the beginning of the file skips to the first line that starts in it, and it keeps going past
+//end to the end of the line it is in. This way every line belongs to exactly one range
+	static void parseRange(FileChannel channel, long start, long end, TaskParser parser) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		byte[] bytes = buffer.array();
+		//a line starts at start if start is the beginning of the file or the byte before it ends a line
+		long position = Math.max(0, start-1);
+		boolean started = start==0;
+		int read;
+
+		while(!parser.stopped() && (read=channel.read(buffer, position))!=-1) {
+			int from = 0;
+			int to = read;
+			if(!started) {
+				//only look for a line end up to the end of the range. A line that starts after it belongs to the
+				//next range
+				int limit = (int)Math.min(read, end-position);
+				while(from<limit && !endsLine(bytes[from])) {
+					from++;
+				}
+				if(from==limit) {
+					if(position+limit >= end) {
+						break;
+					}
+					position += read;
+					buffer.clear();
+					continue;
+				}
+				//the line ending at end-1 or after it belongs to the range before this one so no line starts here
+				if(position+from >= end-1) {
+					break;
+				}
+				from++;
+				started = true;
+			}
+			//once the range has reached end-1, stop after the first byte that ends a line
+			boolean last = false;
+			long check = Math.max(from, end-1-position);
+			for(int i=(int)Math.min(check, read); i<read; i++) {
+				if(endsLine(bytes[i])) {
+					to = i+1;
+					last = true;
+					break;
+				}
+			}
+			parser.feed(bytes, from, to-from);
+			if(last) {
+				break;
+			}
+			position += read;
+			buffer.clear();
 		}
-		//create a new node for linked list with the attributes of a task
-		newNode = new Node(a[0], release, deadline);
-		
-		return newNode;
+		parser.finish();
+	}
+
+	private static boolean endsLine(byte b) {
+		return b=='\n' || b=='\r';
 	}
 /*
  * Analysis of sortTaskByRelease:
- * f(n) = 40nlogn+43n+2(n+1)+11
- * 
- * 2 - assigning a value to tasknum from the size of task array
- * 1 - assigning value to i
- * 2(n+1)+6 - calling the constructor of minHeap
- * 2 - assigning a value to node from the head of the linked list
- * 
- * 1st while loop:
- *   - 1        - comparison
- *   - 4        - accessing nodes key and assigning it a value from the release time
- *   - 18logn+9 - inserting into heap
- *   - 2        - getting the next node in an array
- *   - loop runs n times so times everything by n
- *   - final calculation:  18nlogn+16n
- *         
- * 2nd while loop:
- *   - 22logn+22 - removing the minimum value from the heap, assigning it to ctask and comparing it to null
- *   - 3         - accessing array element and assigning the value of an ctasks attribute
- *   - 2         - increment i
- *   - loop runs n times so times everything by n
- *   - final calculation: 22nlogn+27n
+ * n = number of tasks
+ * r = the largest release time minus the smallest release time
+ *
+ * f(n) = O(n) to find the smallest and largest release times, and then
+ *   - O(nlogn) with the heap if there are fewer than SMALL_SORT tasks
+ *   - O(n+r) with counting sort if r is less than COUNTING_FACTOR*n
+ *   - O(n * 32/RADIX_BITS) with radix sort otherwise
+ * and O(n) to create a Task for each entry of the columns in the sorted order.
+ *
+ * Release times are ints that are >= 0 so they can always be sorted without comparing them. The heap is only kept for
+ * small inputs where the extra arrays the other sorts need cost more than they save.
  */
-	private static void sortTaskByRelease(LinkedList t, Task[] r) {
+	static void sortTaskByRelease(TaskColumns t, Task[] r) {
 		int taskNum = t.size;
-		Node ctask;
-		int i=0;
-		
-		MinHeap releaseHeap = new MinHeap(taskNum);
-		Node node = t.head;
-		//from all the tasks in the linked list we can create a heap data structure
-		//Because the heap is an array which requires to know it size when its created
-		//we use the size of the linked list to let the array know its size
-		while(node!=null) {
-			node.key = node.value.release;
-			releaseHeap.insert(node);
-			node = node.next;
+		//order[i] is the index in the columns of the task that has the i-th smallest release time
+		int[] order = new int[taskNum];
+
+		sortByRelease(t.release, taskNum, order);
+		for(int i=0; i<taskNum; i++) {
+			r[i] = t.task(order[i]);
+		}
+	}
+
+//puts the indexes of the first n release times into order from the smallest release time to the largest
+	static void sortByRelease(int[] release, int n, int[] order) {
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+
+		for(int i=0; i<n; i++) {
+			min = Math.min(min, release[i]);
+			max = Math.max(max, release[i]);
 		}
+		//choose the sort depending on how many tasks there are and how spread out their release times are
+		if(n < SMALL_SORT) {
+			heapSortByRelease(release, n, order);
+		} else if((long)max-min < (long)COUNTING_FACTOR*n) {
+			countingSortByRelease(release, n, order, min, max);
+		} else {
+			radixSortByRelease(release, n, order, min, max);
+		}
+	}
+
+/*
+ * Analysis of heapSortByRelease:
+ * f(n) = O(nlogn)
+ *
+ * Each task is inserted into the heap and removed from it once and both take O(logn)
+ */
+//sorts the first n release times by putting them into a heap and taking them out again
+	static void heapSortByRelease(int[] release, int n, int[] order) {
+		int index;
+		int i=0;
+		MinHeap releaseHeap = new MinHeap(n);
+		//from all the tasks we can create a heap data structure
+		releaseHeap.insertAll(release, 0, n);
 		//remove the tasks from the heap so we can create an array that is ordered by
 		//the release time of each task
-		while((ctask=releaseHeap.removeMin())!=null) {
-			r[i] = ctask.value;
+		while((index=releaseHeap.removeMin())>=0) {
+			order[i] = index;
 			i++;
 		}
 	}
+
+/*
+ * Analysis of countingSortByRelease:
+ * f(n) = O(n+r) where r = max-min
+ *
+ * One pass counts the tasks for each release time, one pass over the counts turns them into the position the first task
+ * of each release time goes to and one pass puts every task into its position.
+ */
+//sorts the first n release times when every release time is between min and max and the range is small
+	static void countingSortByRelease(int[] release, int n, int[] order, int min, int max) {
+		int[] count = new int[max-min+2];
+		for(int i=0; i<n; i++) {
+			count[release[i]-min+1]++;
+		}
+		for(int i=1; i<count.length; i++) {
+			count[i] += count[i-1];
+		}
+		for(int i=0; i<n; i++) {
+			order[count[release[i]-min]++] = i;
+		}
+	}
+
+/*
+ * Analysis of radixSortByRelease:
+ * f(n) = O(n * passes) where passes = (number of bits in max-min)/RADIX_BITS rounded up, so at most 3
+ *
+ * Least significant digit radix sort. Each pass is a stable counting sort on RADIX_BITS bits of the release time, so
+ * after the last pass the tasks are sorted on all of the bits. The keys and the indexes of the tasks are moved
+ * together so each pass reads the arrays from start to end.
+ */
+//sorts the first n release times with a least significant digit radix sort on release-min
+	static void radixSortByRelease(int[] release, int n, int[] order, int min, int max) {
+		int[] keys = new int[n];
+		int[] nextKeys = new int[n];
+		int[] nextOrder = new int[n];
+		int[] count = new int[(1<<RADIX_BITS)+1];
+		int mask = (1<<RADIX_BITS)-1;
+		int bits = 32-Integer.numberOfLeadingZeros(max-min);
+		//the sorted indexes end up in whichever array the last pass wrote to
+		int[] current = order;
+
+		for(int i=0; i<n; i++) {
+			keys[i] = release[i]-min;
+			current[i] = i;
+		}
+		for(int shift=0; shift<bits; shift+=RADIX_BITS) {
+			Arrays.fill(count, 0);
+			for(int i=0; i<n; i++) {
+				count[((keys[i]>>>shift)&mask)+1]++;
+			}
+			for(int i=1; i<count.length; i++) {
+				count[i] += count[i-1];
+			}
+			for(int i=0; i<n; i++) {
+				int pos = count[(keys[i]>>>shift)&mask]++;
+				nextKeys[pos] = keys[i];
+				nextOrder[pos] = current[i];
+			}
+			int[] swap = keys;
+			keys = nextKeys;
+			nextKeys = swap;
+			swap = current;
+			current = nextOrder;
+			nextOrder = swap;
+		}
+		if(current!=order) {
+			System.arraycopy(current, 0, order, 0, n);
+		}
+	}
 /*
  * Analysis of createValidSchedule:
  * f(n) = 40nlog + 59n + 2(n+1) + 10
@@ -339,80 +614,226 @@ public class TaskScheduler {
  *   
  *    22nlogn+34n + 18nlogn+25n + 2(n+1) + 10 = 40nlog + 59n + 2(n+1) + 10
  * 
+ *   Note: when the heap is empty time jumps to the release of the next task. So every pass of the outer loop either
+ *         removes at least one task from the heap or inserts at least one task into it, which means the outer loop
+ *         runs at most 2n times no matter how far apart the release times are.
+ * 
  */
 	//function takes the sorted(by release) array of Tasks and sorts them also by deadline
 	//and then stores them in the array s
-	private static boolean createValidSchedule(Task[] s, Task[] tasks, int cores, int maxTasks) {
+	private static boolean createValidSchedule(Task[] s, Task[] tasks, int cores, int maxTasks, SchedulerMetrics metrics) {
+		//the release time and deadline of each task in the sorted array
+		int[] releases = new int[maxTasks];
+		int[] deadlines = new int[maxTasks];
+		for(int j=0; j<maxTasks; j++) {
+			releases[j] = tasks[j].release;
+			deadlines[j] = tasks[j].deadline;
+		}
+		int[] order = new int[maxTasks];
+		int[] starts = new int[maxTasks];
+		if(!scheduleByDeadline(releases, deadlines, maxTasks, cores, order, starts, new MinHeap(maxTasks),
+				new int[Math.min(cores, maxTasks)], metrics)) {
+			return false;
+		}
+		for(int j=0; j<maxTasks; j++) {
+			Task cTask = tasks[order[j]];
+			//assign the start time to the task and put it in its place in the schedule
+			cTask.startTime = starts[j];
+			s[j] = cTask;
+		}
+		return true;
+	}
+
+//the schedule worked out only with ints. releases and deadlines are the columns of the tasks sorted by release time.
+//The index of the j-th task in the schedule goes in order[j] and its start time in starts[j]. The heap and the running
+//buffer(which needs room for min(cores, maxTasks) entries) are only used while the function runs, so they can be
+//given to it again for another number of cores. If metrics isn't null each time unit is recorded in it
+	static boolean scheduleByDeadline(int[] releases, int[] deadlines, int maxTasks, int cores, int[] order, int[] starts,
+			MinHeap deadlineHeap, int[] running, SchedulerMetrics metrics) {
 		int c;
 		//numTasks is used to see if there are any more tasks to process
 		int numTasks = 0;
 		//the time variable is used for deciding when a task starts
 		//the earliest time available for any task is the release time of the first element of the array
 		//of sorted tasks.
-		int time = tasks[0].release;
+		int time = releases[0];
 		int i=0;
-		//create a new heap that is now ordered on both release and deadline times
-		MinHeap deadlineHeap = new MinHeap(maxTasks);
+		int released;
+		int taken;
+		int waiting;
+		//the heap holds the deadline as the key and the index of the task in the sorted array as the value so
+		//nothing is created for each task
+		deadlineHeap.entries = 0;
 		
 		while(numTasks<maxTasks) {
-			c = 0;
 			//while the current tasks release time is equal to current start time put it into the deadline heap
-			while(i<maxTasks && tasks[i].release == time) {
-				Node cNode = new Node(tasks[i]);
-				cNode.key = tasks[i].deadline;
-				deadlineHeap.insert(cNode);
+			//all of the tasks released at the same time are added to the heap together
+			released = i;
+			while(i<maxTasks && releases[i] == time) {
 				i++;
 			}
+			deadlineHeap.insertAll(deadlines, released, i);
+			waiting = deadlineHeap.entries;
 			//the number of cores dictates how many tasks we can pull out of the deadline heap at particular time
-			while((c<cores) && (deadlineHeap.entries>0)){
-				Task cTask = deadlineHeap.removeMin().value;
+			taken = deadlineHeap.removeMinK(cores, running);
+			if(metrics!=null) {
+				metrics.tick(taken, waiting);
+			}
+			for(c=0; c<taken; c++) {
 				//If the current time is more than the tasks deadline, then there is no possible
 				//schedule
-				if(cTask.deadline<=time) {
+				if(deadlines[running[c]]<=time) {
 					return false;
 				}
 				//assign the current time to the tasks starting time
-				cTask.startTime = time;
-				s[numTasks] = cTask;
+				order[numTasks] = running[c];
+				starts[numTasks] = time;
 				numTasks++;
-				//increment the number of cores used
-				c++;
 			}
-			//increment the current time
-			time++;
+			//if there are no tasks waiting in the heap then nothing can happen until the next task is released
+			//so jump straight to its release time instead of stepping through each idle time unit
+			if(deadlineHeap.entries==0 && i<maxTasks) {
+				if(metrics!=null) {
+					metrics.idle((long)releases[i]-time-1);
+				}
+				time = releases[i];
+			} else {
+				//increment the current time
+				time++;
+			}
 		}
 		
 		return true;
 	}
 /*
- * Analysis of outputToFile: f(n)=8n+6
- * 
- * 2 - creating the File and FileWriter objects
- * 2 - calling the file exists function and using its value for comparison
- * 1 - creating a new fileWriter object
- * 8n - For loop for printing the string to a file
- *    - 1n - calling the write function
- *    - 4n - calling variables from an element in an array twice
- *    - 2n - creating strings with spaces in them
- *    - 1n - combining the string together
- * 1 - calling the function for the file to close
- * 
- * 
+ * Analysis of scheduleWithDurations:
+ * n = number of tasks
+ * m = number of cores
+ * f(n,m) = O(nlogn + nlogm)
+ *
+ * Sorting by release time is at most O(nlogn)(see analysis of sortTaskByRelease). Every task is put into and taken
+ * out of the deadline heap once which is O(logn) each, and every task takes a core out of the core heap and puts it
+ * back once which is O(logm) each.
+ */
+	//schedules tasks that can take more than one time unit. Each task runs for its duration without stopping on one
+	//core. Whenever a core becomes free it is given the released task with the earliest deadline, and a task must
+	//finish by its deadline. The tasks go into s in the order they start. Returns false if there isn't at least 1
+	//core, a task runs for less than 1 time unit or no schedule was found
+	public static boolean scheduleWithDurations(Task[] tasks, int cores, Task[] s) {
+		int maxTasks = tasks.length;
+		if(cores<=0) {
+			System.out.println("The number of cores must be at least 1");
+			return false;
+		}
+		for(int j=0; j<maxTasks; j++) {
+			if(tasks[j].duration<1) {
+				System.out.println("input error when reading the duration of the task " + tasks[j].name);
+				return false;
+			}
+		}
+		if(maxTasks==0) {
+			return true;
+		}
+		int[] byRelease = new int[maxTasks];
+		int[] releases = new int[maxTasks];
+		int[] deadlines = new int[maxTasks];
+		int[] durations = new int[maxTasks];
+		for(int j=0; j<maxTasks; j++) {
+			releases[j] = tasks[j].release;
+		}
+		sortByRelease(releases, maxTasks, byRelease);
+		for(int j=0; j<maxTasks; j++) {
+			Task cTask = tasks[byRelease[j]];
+			releases[j] = cTask.release;
+			deadlines[j] = cTask.deadline;
+			durations[j] = cTask.duration;
+		}
+		int[] order = new int[maxTasks];
+		int[] starts = new int[maxTasks];
+		if(!scheduleWithDurationsByDeadline(releases, deadlines, durations, maxTasks, cores, order, starts)) {
+			return false;
+		}
+		for(int j=0; j<maxTasks; j++) {
+			Task cTask = tasks[byRelease[order[j]]];
+			cTask.startTime = starts[j];
+			s[j] = cTask;
+		}
+		return true;
+	}
+
+//earliest deadline first like scheduleByDeadline for unit tasks but each task runs for durations[j] time units. The
+//time each core is busy until is kept in a heap so the next core to become free is always at the top. Time moves
+//straight to the next time a core becomes free, or to the next release if no task is waiting.
+//When every duration is 1 it finds a schedule for the same task sets as scheduleByDeadline, but tasks with the same
+//deadline can be given different start times because ties are broken in a different order.
+//Returns false if there isn't at least 1 core or a task runs for less than 1 time unit
+	static boolean scheduleWithDurationsByDeadline(int[] releases, int[] deadlines, int[] durations, int maxTasks,
+			int cores, int[] order, int[] starts) {
+		//without a core no task can start, and a task that takes no time would let time stand still
+		if(cores<=0) {
+			return false;
+		}
+		for(int j=0; j<maxTasks; j++) {
+			if(durations[j]<1) {
+				return false;
+			}
+		}
+		//no more than maxTasks cores can ever be used
+		cores = Math.min(cores, maxTasks);
+		MinHeap deadlineHeap = new MinHeap(maxTasks);
+		//the key is the time the core is busy until and the value is the core
+		MinHeap coreHeap = new MinHeap(cores);
+		int numTasks = 0;
+		int i = 0;
+		int released;
+		//time never goes backwards even if a core has been free since before the last task started
+		int time = 0;
+
+		for(int c=0; c<cores; c++) {
+			coreHeap.insert(0, c);
+		}
+		while(numTasks<maxTasks) {
+			//the earliest time a core is free, or the next release if there are no tasks waiting for one
+			time = Math.max(time, coreHeap.minKey());
+			if(deadlineHeap.entries==0 && releases[i]>time) {
+				time = releases[i];
+			}
+			//put every task that has been released by now into the deadline heap
+			released = i;
+			while(i<maxTasks && releases[i] <= time) {
+				i++;
+			}
+			deadlineHeap.insertAll(deadlines, released, i);
+			//give the task with the earliest deadline to the core
+			int task = deadlineHeap.removeMin();
+			int core = coreHeap.removeMin();
+			long finish = (long)time+durations[task];
+			//the task must finish by its deadline
+			if(finish>deadlines[task]) {
+				return false;
+			}
+			order[numTasks] = task;
+			starts[numTasks] = time;
+			numTasks++;
+			coreHeap.insert((int)finish, core);
+		}
+		return true;
+	}
+/*
+ * Analysis of outputToFile: f(n)=O(n)
+ *
+ * Each task is written with ScheduleWriter.write which copies its name and start time straight into a buffer
+ * (see its analysis), so nothing is created for each task. The buffer is written to the file when it is full so
+ * there is one write for every BUFFER_BYTES of output.
  */
 	//take the tasks in s and output them to a file with the name
-	//provided by the outputFile string
+	//provided by the outputFile string. If the name ends in .gz the file is compressed with GZIP
 	private static void outputToFile(Task[] s, String outputFile) {
-		FileWriter out = null;
-		File file = new File(outputFile);
+		ScheduleWriter out = null;
 		
-		//if the file exists make sure not append to the file but to rewrite it
-		//else create a new file with the name provided
+		//if the file exists it is rewritten else a new file is created with the name provided
 		try {
-			if(file.exists()){
-				out = new FileWriter(outputFile, false);
-			} else {
-				out = new FileWriter(outputFile);
-			}
+			out = new ScheduleWriter(outputFile, outputFile.endsWith(".gz"));
 		} catch (IOException e) {
 			System.out.println("Cannot create or find output file");
 			System.exit(0);
@@ -421,8 +842,9 @@ public class TaskScheduler {
 		try {
 			//write the name of each task and the time it starts to the file
 			for(int i=0; i<s.length; i++) {
-				out.write(s[i].name+" "+s[i].startTime+" ");
+				out.write(s[i].name, s[i].startTime);
 			}
+			out.flush();
 		} catch (IOException e) {
 			System.out.println("Cannot write to file");
 			System.exit(0);
@@ -438,283 +860,119 @@ public class TaskScheduler {
 	}
 }
 
-class Task {
-//each task has a name, release time, deadline time and if its schedulable then a starttime
-	public String name;
-	public int release;
-	public int deadline;
-	public int startTime;
-/*
- * Each of these constructors is f(n) = 3
- */
-	public Task() {
-		this.name = null;
-		this.release = -1;
-		this.deadline = -1;
-	}
-	
-	public Task(String name, int release, int deadline) {
-		this.name = name;
-		this.release = release;
-		this.deadline = deadline;
+//the buffers scheduleByDeadline needs for one number of cores. They are created once for each thread of
+//minimumCores and reused for every number of cores that thread tries
+class ScheduleBuffers {
+	public int cores;
+	public int[] order;
+	public int[] starts;
+	public int[] running;
+	public MinHeap heap;
+
+	public ScheduleBuffers(int numTasks) {
+		this.order = new int[numTasks];
+		this.starts = new int[numTasks];
+		this.running = new int[numTasks];
+		this.heap = new MinHeap(numTasks);
 	}
-	
 }
-//Nodes that are used for both linked list and heap data structures
-class Node {
-	public int key;
-	public Task value;
-	public Node next;
-	
-	public Node() {
-		this.key = -1;
-		this.value = null;
-		this.next = null;
-	}
-	public Node(Task element) {
-		this.key = -1;
-		this.value = element;
-		this.next = null;
-	}
-/*
- * Constructor has f(n) = 6
- * 2 - assigning values to key and next
- * 4 - creating a task object and assigning it to the value
- */
-	public Node(String name, int release, int deadline) {
-		this.key = -1;
-		this.value = new Task(name, release, deadline);
-		this.next = null;
-	}
+//writes a schedule as "name start " for each task. The characters are put straight into a byte buffer which is
+//written out through a FileChannel when it is full, or through a GZIP stream if the output is compressed
+class ScheduleWriter {
+	private final static int BUFFER_BYTES = 1<<16;
+	//the most bytes an int takes when it is written out
+	private final static int INT_BYTES = 11;
 
-}
+	private FileOutputStream file;
+	private FileChannel channel;
+	private GZIPOutputStream gzip;
+	private ByteBuffer buffer;
+	private byte[] bytes;
 
-//the linked list is used because at the beginning of the program we don't know how many tasks
-//there are. So we create a linked list, find out the resulting size and use that size to inform
-//the heap how big it should make its internal array
-class LinkedList {
-	public Node head;
-	public int size;
-	
-/*
- * Each of these constructors have f(n) = 2
- * 
- */
-	public LinkedList() {
-		this.head = null;
-		this.size = 0;
-	}
-	public LinkedList(Node head) {
-		this.head = head;
-		this.size = 1;
-	}
-/*
- * Analysis of add:
- * f(n) = 5
- * 1 - comparison of head
- * 1 - assigning head to a temporary node
- * 2 - accessing the new node next and assigning the temporary node to it
- * 1 - assigning a new head
- */
-//this add function essentially acts like a stack. the first element in will be the last element
-//to be taken out
-	public void add(Node newNode) {
-		if(head == null) {
-			head = newNode;
-			size++;
-		} else {
-			Node prevHead = this.head;
-			newNode.next = prevHead;
-			this.head = newNode;
-			size++;
+	public ScheduleWriter(String outputFile, boolean compress) throws IOException {
+		this.file = new FileOutputStream(outputFile, false);
+		this.channel = file.getChannel();
+		if(compress) {
+			this.gzip = new GZIPOutputStream(file, BUFFER_BYTES);
 		}
-	}
-}
-//a heap data structure that uses the minimum value to sort itself
-//it maintains a height of logn by making sure each level of the tree
-//is full before moving onto the next level
-class MinHeap {
-	Node[] heap;
-	int entries;
-//the position in array where the next element can be inserted
-	int lastNode;
-	int minPos = 1;
-	int size;
-/*
- * Analysis of constructor:
- * f(n) = 2(n+1)+6
- * 
- * 2(n+1) for going through each array element and assigning it the value null
- * 2 - calculating the size of the array and assigning and creating a new instance
- * 2 - for the assignment of values to entries and lastnode
- * 2 - for calculating the size of the array and assigning it to a dedicated variable
- */
-	public MinHeap(int size) {
-		this.heap = new Node[size+1];
-		for(int i=0; i<size+1; i++) {
-			this.heap[i] = null;
-		}
-		this.entries=0;
-		this.lastNode=1;
-		this.size = size+1;
-	}
-/*
- * Analysis of removeMin:
- * f(n) = 17 + (22logn+3) = 20 + 22logn
- * 
- * 22logn+3 comes from the analysis of bubbledown
- * 17 operations come from:
- * 
- * 2 - accessing the heap and assigning the value to currentMin
- * 2 - calculating one less than the last node and assigning that value
- * 2 - comparing the entry value twice
- * 4 - calling the swap function
- * 2 - for accessing the array element and assigning it null
- * 2 - calculating and assigning a new value to last node
- * 2 - calculating and assigning a new value to entries
- * 1 - returning from the function with minimum value
- */
-	public Node removeMin() {
-		Node currentMin = heap[minPos];
-		//lastNode actually points to the next available space in the array so the actual last node is the one before it
-		int actualLast = lastNode-1;
-		//return null if there are no elements in the heap
-		if(entries==0) {
-			return null;
-		}
-		//no need to balance the heap if theres only one node
-		if(entries==1) {
-			heap[minPos] = null;
-			lastNode--;
-			entries--;
-		} else {
-			//bring the last element up to the root of the tree and then balance the tree
-			//downwards
-			swap(minPos, actualLast);
-			heap[actualLast] = null;
-			lastNode--;
-			entries--;
-			bubbleDown(minPos);
-		}
-		return currentMin;
-	}
-/*
- * Analysis of insert:
- * f(n) = 7 + (18logn + 2) = 18logn + 9 
- * 
- * 2 - accessing the heap array and assigning a value to it
- * 2 - calculation and assigning a value to the entries variable
- * 2 - calculation and assigning a value to the lastnode variable
- * 1 - for calling the bubbleUp function
- * 18logn+2 - for the bubbleUp function
- * 
- */
-	public void insert(Node newNode) {
-		//insert the node into the next available position and then make sure the tree is balanced
-		heap[lastNode] = newNode;
-		entries++;
-		bubbleUp(lastNode);
-		lastNode++;
+		this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		this.bytes = buffer.array();
 	}
 
 /*
- * Analysis of bubbleDown:
- * f(n) = 22logn + 3
- * 
- * The most amount of nodes this function can visit is the height of the tree which is equal to logn and the number of operations
- * that the function does per height that it visits is 22.
- * 
- * 2 - for calculating and assigning the left position number
- * 3 - for calculating and assigning the right position number
- * 7 - comparison of rightpos to the lastnode, 2x(array and variable access)+ comparison and the final assignment of minChild
- * 5 - comparing the keys of 2 items in an array
- * 4 - calling the swap function(please see the analysis of that function)
- * 1 - for calling bubbleUp
- * 
- * The final 3 operations are comparing the left and right positions to the last node and returning
+ * Analysis of write:
+ * f(n) = O(length of the name)
+ *
+ * The name is copied one character at a time and the digits of the start time are worked out from the last one to
+ * the first directly in the buffer, so no Strings are created.
  */
-	public void bubbleDown(int pos) {
-		//in order to mimick a tree, the left and right nodes are at variable positions in the array
-		int leftPos = pos*2;
-		int rightPos = ((pos*2)+1);
-		int minChild;
-		//make sure that we haven't gone past the last node
-		if(rightPos >= lastNode) {
-			if(leftPos >= lastNode) {
-				return;
-			} else {
-				minChild = leftPos;
+	public void write(String name, int startTime) throws IOException {
+		int length = name.length();
+		if(buffer.remaining() < length+INT_BYTES+2) {
+			flush();
+		}
+		int pos = buffer.position();
+		if(length+INT_BYTES+2 <= BUFFER_BYTES) {
+			for(int i=0; i<length; i++) {
+				bytes[pos+i] = (byte) name.charAt(i);
 			}
-		//compare the left and right to see which is the smallest key
+			pos += length;
 		} else {
-			if(heap[leftPos].key <= heap[rightPos].key) {
-				minChild = leftPos;
-			} else {
-				minChild = rightPos;
+			//a name that is longer than the buffer is written a piece at a time
+			for(int i=0; i<length; i++) {
+				if(!buffer.hasRemaining()) {
+					flush();
+				}
+				buffer.put((byte) name.charAt(i));
 			}
+			if(buffer.remaining() < INT_BYTES+2) {
+				flush();
+			}
+			pos = buffer.position();
 		}
-		//if the position is more than the child which is smallest then
-		//the tree is unbalanced so swap them and call the function again
-		//to make sure the rest of the tree is balanced
-		if(heap[pos].key > heap[minChild].key) {
-			swap(pos, minChild);
-			bubbleDown(minChild);
-		}
-		
+		bytes[pos++] = ' ';
+		pos = writeInt(startTime, pos);
+		bytes[pos++] = ' ';
+		buffer.position(pos);
 	}
-/*
- * Analysis of bubbleUp
- * f(n) = 18*logn+2 => O(logn)
- * 
- * The maximum number of times this function can call itself is equal to the height of the tree which is equal to logn
- * and the number of operations each time the function is called is 18.
- * 
- * 1 - for comparison of the current position to root
- * 7 - for the assignment of the parent and the calling of getParent function(see the analysis below)
- * 5 - for accessing the heap arrays elements, their keys and then comparing them 
- * 4 - for calling the function swap(1 + 3)
- * 1 - calling bubbleUp
- * 
- * The final +2 comes from comparing the position to the root and then returning
- */
-	public void bubbleUp(int pos) {
-		//if your at the root of the tree stop
-		if(pos==minPos) {
-			return;
+
+//write the digits of value into the buffer at pos and return the position after them
+	private int writeInt(int value, int pos) {
+		long v = value;
+		if(v < 0) {
+			bytes[pos++] = '-';
+			v = -v;
 		}
-		//if the child is smaller than the parent then the tree is unbalanced
-		//so swap them and make sure the rest of the tree is balanced
-		int parent=getParent(pos);
-		if(heap[pos].key < heap[parent].key) {
-			swap(pos, parent);
-			bubbleUp(parent);
+		int digits = 1;
+		for(long rest=v/10; rest>0; rest/=10) {
+			digits++;
 		}
+		for(int i=pos+digits-1; i>=pos; i--) {
+			bytes[i] = (byte) ('0'+v%10);
+			v /= 10;
+		}
+		return pos+digits;
 	}
-	
-/*
- * Analysis: f(n) = 5
- * 2 for comparison and calculation of mod i with 2 
- * 3 for the returning the longest of the two calculations which
- *    involves i-1 and then dividing the the result by 2	
- */
-//find the parent node depending on whether the nodes position is odd(right child)
-//or even(a left child)
-	public int getParent(int i) {
-		if((i%2)==0) {
-			return (i/2);
+
+//write everything in the buffer to the file
+	public void flush() throws IOException {
+		buffer.flip();
+		if(gzip != null) {
+			gzip.write(bytes, 0, buffer.limit());
 		} else {
-			return ((i-1)/2);
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
 		}
+		buffer.clear();
 	}
-/*
- * Analysis: f(n) = 3
- * 3 for 3 assignments
- */
-//swap the elements in the tree
-	public void swap(int x, int y) {
-		Node temp = heap[x];
-		heap[x] = heap[y];
-		heap[y] = temp;
+
+	public void close() throws IOException {
+		flush();
+		if(gzip != null) {
+			gzip.close();
+		} else {
+			file.close();
+		}
 	}
-	
 }
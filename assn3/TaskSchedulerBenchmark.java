@@ -0,0 +1,182 @@
+/*
+ * Program Description: Benchmarks the ways TaskScheduler can sort the tasks by release time. Random tasks are
+ *                      generated for each size with release times spread over a small range(where counting sort is
+ *                      chosen) and over the whole int range(where radix sort is chosen). Each sort is timed on the
+ *                      same tasks together with the sort sortTaskByRelease picks on its own.
+ *
+ *                      Reading a task file is also timed with one thread and with getAllTasksParallel, on a file with
+ *                      one task per line and on a file with every task on a single line. A single line can't be split
+ *                      so the parallel read should take about as long as one thread, and both reads must give the
+ *                      same tasks.
+ *
+ *                      Each measurement is run a few times to warm up the JIT before the timed runs. It only needs the
+ *                      JDK so it can be run offline:
+ *
+ *                      javac *.java
+ *                      java TaskSchedulerBenchmark [sizes]
+ *                      e.g. java TaskSchedulerBenchmark 1000 100000 1000000
+ *
+ */
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+public class TaskSchedulerBenchmark {
+
+	private final static int WARMUP = 3;
+	private final static int RUNS = 5;
+
+	//results are added to this so the JIT can't remove the work being measured
+	private static long sink;
+
+	public static void main(String[] args) {
+		int[] sizes = {32, 1000, 100000, 1000000};
+		if(args.length>0) {
+			sizes = new int[args.length];
+			for(int i=0; i<args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		System.out.println("sort        releases     tasks      result");
+		for(int size : sizes) {
+			benchSorts("dense", randomTasks(size, size, 1));
+			benchSorts("sparse", randomTasks(size, Integer.MAX_VALUE, 2));
+		}
+		int largest = sizes[sizes.length-1];
+		benchParse("lines", largest, '\n');
+		benchParse("one-line", largest, ' ');
+		System.out.println("(sink " + sink + ")");
+	}
+
+//the columns of n tasks with release times chosen at random from 0 up to range
+	private static TaskColumns randomTasks(int n, int range, long seed) {
+		Random random = new Random(seed);
+		TaskColumns tasks = new TaskColumns();
+		for(int i=0; i<n; i++) {
+			int release = random.nextInt(range);
+			tasks.add(0, 0, release, release+1);
+		}
+		return tasks;
+	}
+
+	private static void benchSorts(String kind, final TaskColumns tasks) {
+		final int n = tasks.size;
+		final int[] order = new int[n];
+		final Task[] r = new Task[n];
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		for(int i=0; i<n; i++) {
+			min = Math.min(min, tasks.release[i]);
+			max = Math.max(max, tasks.release[i]);
+		}
+		final int low = min;
+		final int high = max;
+
+		measure("heap", kind, n, new Runnable() {
+			public void run() {
+				TaskScheduler.heapSortByRelease(tasks.release, n, order);
+				sink += order[n-1];
+			}
+		});
+		//counting sort needs an array as big as the range of release times
+		if((long)high-low <= 4L*Math.max(n, 1<<20)) {
+			measure("counting", kind, n, new Runnable() {
+				public void run() {
+					TaskScheduler.countingSortByRelease(tasks.release, n, order, low, high);
+					sink += order[n-1];
+				}
+			});
+		}
+		measure("radix", kind, n, new Runnable() {
+			public void run() {
+				TaskScheduler.radixSortByRelease(tasks.release, n, order, low, high);
+				sink += order[n-1];
+			}
+		});
+		//the automatic choice also creates a Task for each entry in the sorted order
+		measure("auto", kind, n, new Runnable() {
+			public void run() {
+				TaskScheduler.sortTaskByRelease(tasks, r);
+				sink += r[n-1].release;
+			}
+		});
+	}
+
+//writes n random tasks to a temporary file with separator between the tasks and times reading it back in with one
+//thread and in parallel. Prints MISMATCH if the two reads don't give the same tasks
+	private static void benchParse(String kind, int n, char separator) {
+		File file = null;
+		try {
+			file = File.createTempFile("tasks", ".txt");
+			Writer out = new BufferedWriter(new FileWriter(file));
+			TaskColumns tasks = randomTasks(n, Integer.MAX_VALUE-1, 3);
+			for(int i=0; i<n; i++) {
+				out.write("T" + i + " " + tasks.release[i] + " " + tasks.deadline[i] + separator);
+			}
+			out.close();
+
+			final FileInputStream in = new FileInputStream(file);
+			final FileChannel channel = in.getChannel();
+			final long size = channel.size();
+			final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+			final TaskColumns[] read = new TaskColumns[2];
+			measure("parse-1", kind, n, new Runnable() {
+				public void run() {
+					read[0] = new TaskColumns();
+					TaskParser parser = new TaskParser(read[0]);
+					try {
+						TaskScheduler.parseRange(channel, 0, size, parser);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					sink += read[0].size;
+				}
+			});
+			measure("parse-" + threads, kind, n, new Runnable() {
+				public void run() {
+					read[1] = new TaskColumns();
+					TaskScheduler.getAllTasksParallel(channel, size, threads, read[1]);
+					sink += read[1].size;
+				}
+			});
+			in.close();
+			if(!sameTasks(read[0], read[1]) || read[0].size!=n) {
+				System.out.println("MISMATCH reading " + kind + ": " + read[0].size + " and " + read[1].size + " tasks");
+			}
+		} catch (IOException e) {
+			System.out.println("Cannot write the task file");
+		} finally {
+			if(file!=null) {
+				file.delete();
+			}
+		}
+	}
+
+	private static boolean sameTasks(TaskColumns a, TaskColumns b) {
+		if(a.size!=b.size) {
+			return false;
+		}
+		for(int i=0; i<a.size; i++) {
+			if(a.release[i]!=b.release[i] || a.deadline[i]!=b.deadline[i] || !a.name(i).equals(b.name(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+//runs the benchmark WARMUP times without timing it and then RUNS times with timing and prints the average time
+	private static void measure(String name, String kind, int n, Runnable benchmark) {
+		for(int i=0; i<WARMUP; i++) {
+			benchmark.run();
+		}
+		long start = System.nanoTime();
+		for(int i=0; i<RUNS; i++) {
+			benchmark.run();
+		}
+		double perOp = (double) (System.nanoTime()-start)/RUNS;
+		System.out.format("%-10s %-10s %9d  %10.3f ms/op  %6.1f ns/task%n", name, kind, n, perOp/1e6, perOp/n);
+	}
+
+}
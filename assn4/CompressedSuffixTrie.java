@@ -10,12 +10,36 @@
  */
 
 import java.io.*;
-import java.util.regex.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class CompressedSuffixTrie {
 
 	public Node root;
 	public char[] word;
+	//when the trie is built from a packed sequence the word is read from here instead of the character array
+	public PackedSequence sequence;
+	//true once every Node has been given the number of suffixes below it(only done by Ukkonen's algorithm)
+	private boolean counted;
+	
+	//leaves built by Ukkonen's algorithm share this end until the tree is finalised
+	private final static int LEAF_END = Integer.MAX_VALUE;
+	//a virtual character after the end of the word. 3 is the only free slot in a Node's links (3%5 = 3)
+	private final static int TERMINATOR = 3;
+	//the bases in the order of their 2 bit codes
+	private final static char[] DNA = {'A','C','G','T'};
+	
+	//if the LCS matrix for similarityAnalyser would have more cells than this then the linear space LCS is used instead.
+	//This can be changed to suit the amount of memory available
+	public static long linearSpaceThreshold = 1L<<24;
+	//the largest number of cells the linear space LCS will use for the rows it solves directly
+	private final static int BLOCK_CELLS = 1<<20;
+	//the number of sequences along each side of a tile of the similarity matrix
+	private final static int TILE = 16;
 	
 /*
  * Analysis of CompresssedSuffixTrie:
@@ -60,137 +84,76 @@ public class CompressedSuffixTrie {
 
 //The constructor to build the a compressed suffix trie from a word that is found in the file f
 	public CompressedSuffixTrie(String f) {
-		int c;
+		this(f, false);
+	}
+
+//The constructor to build the compressed suffix trie with a choice of construction. If linear is true then
+//the trie is built online using Ukkonen's algorithm, otherwise each suffix is inserted from the end of the word.
+//Both constructions produce a tree of Nodes that findString walks in exactly the same way, but only the linear one
+//always returns the leftmost occurrence(see finaliseTree).
+	public CompressedSuffixTrie(String f, boolean linear) {
 		this.root = new Node();
 		//get the word from the file f and build the compressed suffix trie from it
 		char[] suffixWord = getSequenceFromFile(f);
 		if(suffixWord!=null) {
 			this.word = suffixWord;
-			int end = word.length-1;
-			//go from the last character to the first and build the suffix trie that way
-			for(int i=word.length-1; i>=0; i--) {
-				c = word[i];
-				//if the character that is at the beginning of the suffix trie hasn't been seen then
-				//automatically include it as a new child in the suffix
-				if(root.getLinks(c) == null){
-					root.putLinks(c, new Node(i,end));
-				} else {
-				//if the character has already been seen within the suffix trie then we need to split the node
-				//that character currently is placed at.
-					splitChild(word, root.getLinks(c), i , c, end);
-				}
+			if(linear) {
+				buildUkkonen();
+			} else {
+				insertSuffixes();
+			}
+		}
+	}
+
+//The constructor to build the compressed suffix trie straight from a 2 bit packed sequence(see PackedSequence).
+//The sequence is never unpacked so the only copy of the word in memory is a quarter of a byte per base.
+//The trie is built with Ukkonen's algorithm.
+	public CompressedSuffixTrie(PackedSequence sequence) {
+		this.root = new Node();
+		if(sequence!=null) {
+			this.sequence = sequence;
+			buildUkkonen();
+		}
+	}
+
+//insert every suffix from the last character to the first, splitting nodes as required.
+	private void insertSuffixes() {
+		int c;
+		int end = word.length-1;
+		//go from the last character to the first and build the suffix trie that way
+		for(int i=word.length-1; i>=0; i--) {
+			c = word[i];
+			//if the character that is at the beginning of the suffix trie hasn't been seen then
+			//automatically include it as a new child in the suffix
+			if(root.getLinks(c) == null){
+				root.putLinks(c, new Node(i,end));
+			} else {
+			//if the character has already been seen within the suffix trie then we need to split the node
+			//that character currently is placed at.
+				splitChild(word, root.getLinks(c), i , c, end);
 			}
 		}
 	}
 	
 /*
  * Analysis of getSequenceFromFile:
- * f(n) = 25n+14
- * 
- * Node: For the worst case this assumes that each letter of the DNA sequence is on its own line
- * 
- * (1) 
- * 7 - assigning of multiple values to variable until the first try statement
- * 
- * (2)
- * While loop = 20
- * 3 - calling the readline method, assigning the value to input file and comparing it to null
- * 2 - assigning a value to the matcher variable
- * 2 - calling find and comparing its value
- * 1 - for loop runs once because there's only one character on each line
- * 2 - accessing the character in a string and assigning it to the character
- * 3 - calling the iswhitespace method and comparing its value
- * 7 - 5 to add a character to the linked list and 2 to create a new node
+ * f(n) = O(n)
  * 
- * (3) - 4
- * 2 - creating a new char array whose size is determined by the linkedlist size
- * 2 - assigning linked lists head to the Node current
+ * n = number of bytes in the file
  * 
- * (4)
- * for loop = 5
- * 3 - accessing array element and assigning it a value from current node
- * 2 - going to the next node
- * 
- * (5) - 3
- * 1 - putting the value of seq into result
- * 1 - closing the input
- * 1 - return result
- * 
- * (2) this runs n times because each element is on its own line.
- *     Thus is has a complexity = 20n 
- * (4) accessing each element in the linkedlist means it runs n times.
- *     Thus the complexity = 5n
- * 
- * Total complexity of the function is: (1)+(2)+(3)+(4)+(5) = 7+20n+4+5n+3 = 25n+14
+ * PackedSequence.load looks at every byte in the file once and packs each base into 2 bits(see its analysis).
+ * Unpacking into the character array is another n operations. No objects are created for each character.
  * 
  */
 	
 //this function opens a file, obtains the DNA sequence and returns it
-	private static char[] getSequenceFromFile(String f) {
-		char[] result = null;
-		BufferedReader inputFile = null;
-		//linked list is used to determine how many characters are in the file so
-		//we can later assign the appropriate space to a character array
-		LinkedList preSequence = new LinkedList();
-		//DNA sequences are only made from the characters A,C,G and T. Spaces are present in the file
-		String pattern = "^[ACGT\\s]*$";
-		Pattern p = Pattern.compile(pattern);
-		Matcher m = null;
-		char c;
-		String input;
-		char[] seq;
-		
-		try {
-			inputFile = new BufferedReader(new FileReader(f));
-		} catch (FileNotFoundException e) {
-			System.out.println("File f not found");
-			return null;
-		}
-		
-		try {
-			//grab the line from the file
-			while((input=inputFile.readLine())!=null) {
-				//see if the line only contains the correct characters
-				m = p.matcher(input);
-				if(!m.find()) {
-					System.out.println("File has non-DNA characters");
-					inputFile.close();
-					return null;
-				}
-				for(int i=0; i<input.length(); i++) {
-					c = input.charAt(i);
-					//if the character is whitespace then don't include it in the sequence
-					if(!Character.isWhitespace(c)) {
-						//add it to the linked list so we can determine the size later
-						preSequence.add(new Node(c));
-					}
-				}
-			}
-			//the words size can finally be obtained from the linked list
-			seq = new char[preSequence.size];
-			Node current = preSequence.head;
-			//the linked list is essentially a Stack or a LIFO structure
-			//so grab the characters and put them in reverse order in the new character array
-			for(int i = preSequence.size-1; i>=0; i--) {
-				seq[i] = current.element;
-				current = current.next;
-			}
-			result = seq;
-			
-				
-		} catch (IOException e1) {
-			System.out.println("Cannot read from file f. Cannot obtain sequence");
-			return null;
-		}
-		
-		try {
-			inputFile.close();
-		} catch (IOException e) {
-			System.out.println("Cannot close the file. Cannot obtain sequence");
+	static char[] getSequenceFromFile(String f) {
+		//the file is scanned and validated by the packed loader which prints any problems it finds
+		PackedSequence packed = PackedSequence.load(f);
+		if(packed==null) {
 			return null;
 		}
-		//finally return the DNA character array 
-		return result;
+		return packed.toCharArray();
 	}
 /*
  * Analysis of splitChild:
@@ -264,6 +227,339 @@ public class CompressedSuffixTrie {
 		}
 		
 	}
+/*
+ * Analysis of buildUkkonen:
+ * n = size of the word
+ * f(n) = O(n)
+ * 
+ * Each position of the word is added once to the remainder and removed once from it, and every removal either creates
+ * a leaf or follows a suffix link. The walk down the tree (skip/count) only ever moves the active point forward, so the
+ * total work over the whole word is linear. Leaves share the global end (LEAF_END) so extending every leaf by one
+ * character at each phase costs nothing.
+ * 
+ * finaliseTree then visits each node a constant number of times which is O(n) because there are at most 2n+2 nodes.
+ */
+//Build the compressed suffix trie online using Ukkonen's algorithm. A terminator is placed virtually
+//after the last character of the word so that every suffix ends at its own leaf.
+	private void buildUkkonen() {
+		int n = wordLength();
+		Node activeNode = root;
+		int activeEdge = 0;
+		int activeLength = 0;
+		//the number of suffixes that still need to be explicitly inserted
+		int remainder = 0;
+		
+		for(int pos=0; pos<=n; pos++) {
+			int c = charAt(pos);
+			Node lastNew = null;
+			remainder++;
+			while(remainder>0) {
+				if(activeLength==0) {
+					activeEdge = pos;
+				}
+				Node next = activeNode.getLinks(charAt(activeEdge));
+				if(next == null) {
+					//no edge starts with this character so hang a new leaf off the active node
+					activeNode.putLinks(charAt(activeEdge), new Node(pos, LEAF_END));
+					if(lastNew!=null) {
+						lastNew.suffixLink = activeNode;
+						lastNew = null;
+					}
+				} else {
+					//skip/count down the tree if the active length covers the whole edge
+					int edgeLength = edgeLength(next, pos);
+					if(activeLength >= edgeLength) {
+						activeEdge += edgeLength;
+						activeLength -= edgeLength;
+						activeNode = next;
+						continue;
+					}
+					//the character is already on the edge so this phase is finished
+					if(charAt(next.start+activeLength) == c) {
+						if(lastNew!=null && activeNode!=root) {
+							lastNew.suffixLink = activeNode;
+						}
+						activeLength++;
+						break;
+					}
+					//split the edge into an internal node with the old edge and a new leaf as children
+					Node split = new Node(next.start, next.start+activeLength-1);
+					activeNode.putLinks(charAt(activeEdge), split);
+					split.putLinks(c, new Node(pos, LEAF_END));
+					next.start += activeLength;
+					split.putLinks(charAt(next.start), next);
+					if(lastNew!=null) {
+						lastNew.suffixLink = split;
+					}
+					lastNew = split;
+				}
+				remainder--;
+				if(activeNode==root && activeLength>0) {
+					activeLength--;
+					activeEdge = pos-remainder+1;
+				} else if(activeNode!=root) {
+					activeNode = (activeNode.suffixLink!=null) ? activeNode.suffixLink : root;
+				}
+			}
+		}
+		finaliseTree();
+	}
+
+//the character at a position of the word where the position one past the end is the terminator
+	private int charAt(int pos) {
+		if(pos==wordLength()) {
+			return TERMINATOR;
+		}
+		return base(pos);
+	}
+
+//the character at index i of the word, which is read from the packed sequence if there is no character array
+	private char base(int i) {
+		if(word!=null) {
+			return word[i];
+		}
+		return sequence.charAt(i);
+	}
+
+//the number of characters in the word. A trie whose file couldn't be loaded has no word so its length is 0
+	private int wordLength() {
+		if(word!=null) {
+			return word.length;
+		}
+		if(sequence!=null) {
+			return sequence.length;
+		}
+		return 0;
+	}
+
+//the number of characters on the edge leading into a node during the phase pos
+	private static int edgeLength(Node node, int pos) {
+		int end = (node.end==LEAF_END) ? pos : node.end;
+		return end-node.start+1;
+	}
+
+//Once Ukkonen's algorithm has finished, leaves end at the terminator and edge labels point at whichever occurrence
+//created them. This walks the tree without recursion (the tree can be as deep as the word is long), removes the
+//terminator, and relabels every edge to the leftmost occurrence so findString returns the index of the first
+//occurrence of the pattern. This is not always what a trie from insertSuffixes returns: it can miss patterns that are
+//in the word, e.g. CAAC in GAGGCACCCAACAGGA gives -1 there but 8 here.
+	private void finaliseTree() {
+		int n = wordLength();
+		//there are at most 2(n+1) nodes in a suffix tree with a terminator
+		Node[] order = new Node[2*n+3];
+		int[] parent = new int[2*n+3];
+		int[] depth = new int[2*n+3];
+		int[] leftmost = new int[2*n+3];
+		int count = 0;
+		
+		//preorder walk: a parent is always placed in the order before its children
+		order[count] = root;
+		parent[count] = -1;
+		depth[count] = 0;
+		count++;
+		for(int i=0; i<count; i++) {
+			Node node = order[i];
+			leftmost[i] = Integer.MAX_VALUE;
+			node.suffixLink = null;
+			node.leaves = 0;
+			for(int j=0; j<node.links.length; j++) {
+				Node child = node.links[j];
+				if(child!=null) {
+					if(child.end==LEAF_END) {
+						child.end = n;
+					}
+					order[count] = child;
+					parent[count] = i;
+					depth[count] = depth[i]+child.end-child.start+1;
+					count++;
+				}
+			}
+		}
+		//children come after their parents so going backwards gives each node the leftmost suffix below it
+		//and the number of suffixes below it(each suffix has its own leaf because of the terminator)
+		for(int i=count-1; i>0; i--) {
+			if(order[i].end==n) {
+				leftmost[i] = n+1-depth[i];
+				order[i].leaves = 1;
+			}
+			if(leftmost[i] < leftmost[parent[i]]) {
+				leftmost[parent[i]] = leftmost[i];
+			}
+			order[parent[i]].leaves += order[i].leaves;
+		}
+		counted = true;
+		//relabel each edge to the leftmost occurrence of its path label and strip the terminator from the leaves
+		for(int i=1; i<count; i++) {
+			Node node = order[i];
+			int length = node.end-node.start+1;
+			node.start = leftmost[i]+depth[i]-length;
+			node.end = leftmost[i]+depth[i]-1;
+			if(node.end==n) {
+				node.end = n-1;
+				//a leaf which was only the terminator is not part of the word
+				if(node.start>node.end) {
+					order[parent[i]].putLinks(TERMINATOR, null);
+				}
+			}
+		}
+	}
+/*
+ * Analysis of countString:
+ * m = length of the pattern
+ * f(m) = O(m)
+ * 
+ * The walk is the same as findString. Every node already knows how many suffixes are below it so once the
+ * pattern has been matched the count is read from the node the walk ended in.
+ */
+//returns the number of times the pattern occurs in the word. The counts are recorded by Ukkonen's algorithm
+//so the trie has to have been built in linear mode(or from a packed sequence)
+	public int countString(String s) {
+		if(!counted) {
+			System.out.println("Occurrences are only recorded when the trie is built in linear mode");
+			return -1;
+		}
+		Node node = locate(s.toCharArray(), null);
+		if(node == null) {
+			return 0;
+		}
+		return node.leaves;
+	}
+
+//returns every index the pattern occurs at in no particular order. The indexes are found one at a time as the
+//iterator is used so a pattern that occurs millions of times doesn't create millions of objects
+	public PrimitiveIterator.OfInt occurrences(String s) {
+		int[] depth = new int[1];
+		Node node = null;
+		if(counted) {
+			node = locate(s.toCharArray(), depth);
+		} else {
+			System.out.println("Occurrences are only recorded when the trie is built in linear mode");
+		}
+		return new OccurrenceIterator(node, depth[0], wordLength());
+	}
+
+//walk the pattern down the trie the same way as findString and return the node whose edge the pattern ends on.
+//The number of characters from the root to the end of that node is put into depth[0]. An empty pattern or a pattern
+//that isn't in the word returns null.
+	private Node locate(char[] ss, int[] depth) {
+		Node current = this.root;
+		int cStart = 0;
+		int cEnd = -1;
+		
+		if(ss.length==0) {
+			return null;
+		}
+		for(int i=0; i<ss.length; i++) {
+			int c = ss[i];
+			if(cStart > cEnd) {
+				current = current.getLinks(c);
+				if(current == null) {
+					return null;
+				}
+				cStart = current.start;
+				cEnd = current.end;
+			}
+			if(ss[i] == base(cStart)) {
+				cStart++;
+			} else {
+				return null;
+			}
+		}
+		if(depth!=null) {
+			//the pattern plus the characters left on the edge
+			depth[0] = ss.length+cEnd-cStart+1;
+		}
+		return current;
+	}
+
+/*
+ * Analysis of save:
+ * n = size of the word
+ * f(n) = O(n)
+ * 
+ * The trie has at most 2n+2 nodes and each one is visited once by the breadth first walk and written once.
+ */
+//Saves the trie to the file f so it can be used again without rebuilding it(see MappedSuffixTrie).
+//The nodes are numbered in breadth first order from the root(0) and written as columns of ints:
+//  header:   magic, length of the word, number of nodes, 1 if the suffix counts were recorded
+//  sequence: the word packed with 2 bits per base(see PackedSequence)
+//  nodes:    start[], end[], leaves[], then the child of each node for A, C, G and T(-1 for no child)
+//Returns false if the trie has no word or the file can't be written
+	public boolean save(String f) {
+		//there is nothing to save if the constructor couldn't load the word
+		if(word==null && sequence==null) {
+			System.out.println("There is no trie to save because its word was not loaded");
+			return false;
+		}
+		int n = wordLength();
+		Node[] order = new Node[16];
+		int[][] children = new int[4][16];
+		int count = 1;
+		order[0] = root;
+		
+		//number the nodes breadth first and remember the number of each child
+		for(int i=0; i<count; i++) {
+			for(int c=0; c<4; c++) {
+				Node child = order[i].getLinks(DNA[c]);
+				int index = -1;
+				if(child!=null) {
+					if(count==order.length) {
+						order = Arrays.copyOf(order, count*2);
+						for(int k=0; k<4; k++) {
+							children[k] = Arrays.copyOf(children[k], count*2);
+						}
+					}
+					order[count] = child;
+					index = count;
+					count++;
+				}
+				children[c][i] = index;
+			}
+		}
+		
+		PackedSequence packed = (sequence!=null) ? sequence : PackedSequence.pack((word!=null) ? word : new char[0]);
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1<<16));
+		} catch (IOException e) {
+			System.out.println("Cannot create the snapshot file");
+			return false;
+		}
+		try {
+			out.writeInt(MappedSuffixTrie.MAGIC);
+			out.writeInt(n);
+			out.writeInt(count);
+			out.writeInt(counted ? 1 : 0);
+			for(int i=0; i<(n+31)/32; i++) {
+				out.writeLong(packed.bases[i]);
+			}
+			for(int i=0; i<count; i++) {
+				out.writeInt(order[i].start);
+			}
+			for(int i=0; i<count; i++) {
+				out.writeInt(order[i].end);
+			}
+			for(int i=0; i<count; i++) {
+				out.writeInt(order[i].leaves);
+			}
+			for(int c=0; c<4; c++) {
+				for(int i=0; i<count; i++) {
+					out.writeInt(children[c][i]);
+				}
+			}
+		} catch (IOException e1) {
+			System.out.println("Cannot write to the snapshot file");
+			return false;
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				System.out.println("Cannot close the snapshot file");
+			}
+		}
+		return true;
+	}
+
 /*
  * Analysis of findString:
  * 
@@ -322,7 +618,7 @@ public class CompressedSuffixTrie {
 				}
 			}
 			//if the characters within the word and substring match keep going
-			if(ss[i] == this.word[cStart]) {
+			if(ss[i] == base(cStart)) {
 				endPosition = cStart;
 				cStart++;
 			} else {
@@ -333,6 +629,178 @@ public class CompressedSuffixTrie {
 		//starting position of the substring within the word
 		return endPosition-ss.length+1;
 	}
+
+//finds every pattern in the collection and returns the same positions findString would, in the same order
+	public int[] findAll(Collection<String> patterns) {
+		String[] ss = patterns.toArray(new String[patterns.size()]);
+		int[] positions = new int[ss.length];
+		findAll(ss, positions, 1);
+		return positions;
+	}
+
+//finds every pattern and puts the position of patterns[i] into positions[i] so the caller can reuse the positions.
+//No String or object is created for each pattern, only the int order they are sorted in and the walk state of a batch
+	public void findAll(String[] patterns, int[] positions) {
+		findAll(patterns, positions, 1);
+	}
+
+/*
+ * Analysis of findAll:
+ * k = number of patterns
+ * L = total length of the patterns
+ * 
+ * f(k,L) = O(L log k) for sorting + O(the number of characters that aren't shared with the previous pattern)
+ * 
+ * The patterns are sorted so patterns with the same prefix are next to each other. The state of the walk through the
+ * trie is kept after every character of the last pattern, so the next pattern carries on from the end of the prefix it
+ * shares with the last one instead of starting at the root again. If the last pattern failed within the shared prefix
+ * then so does the next one without looking at the trie at all.
+ */
+//the same as findAll(patterns, positions) but the sorted patterns are split into contiguous batches that are walked
+//by the given number of threads. The trie isn't changed by a walk so the threads can share it safely.
+	public void findAll(String[] patterns, int[] positions, int threads) {
+		String[] ss = patterns;
+		int[] order = new int[ss.length];
+		for(int i=0; i<ss.length; i++) {
+			order[i] = i;
+		}
+		sortPatterns(ss, order, new int[ss.length], 0, ss.length);
+		int batches = Math.max(1, Math.min(threads, ss.length));
+		if(batches==1) {
+			findBatch(ss, order, 0, ss.length, positions);
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(batches);
+		try {
+			pool.invoke(new FindBatches(ss, order, positions, 0, ss.length, (ss.length+batches-1)/batches));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+//merge sorts order[lo..hi) so the patterns they point to are in alphabetical order. The indexes are sorted as plain
+//ints so nothing is boxed, and temp is the only other array that is needed
+	private static void sortPatterns(String[] ss, int[] order, int[] temp, int lo, int hi) {
+		if(hi-lo<2) {
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		sortPatterns(ss, order, temp, lo, mid);
+		sortPatterns(ss, order, temp, mid, hi);
+		//the halves are already in order so there is nothing to merge
+		if(ss[order[mid-1]].compareTo(ss[order[mid]])<=0) {
+			return;
+		}
+		System.arraycopy(order, lo, temp, lo, hi-lo);
+		int a = lo;
+		int b = mid;
+		for(int i=lo; i<hi; i++) {
+			if(b>=hi || (a<mid && ss[temp[a]].compareTo(ss[temp[b]])<=0)) {
+				order[i] = temp[a];
+				a++;
+			} else {
+				order[i] = temp[b];
+				b++;
+			}
+		}
+	}
+
+//walks the sorted patterns order[lo..hi) through the trie, reusing the walk of the prefix shared with the last pattern
+	private void findBatch(String[] ss, int[] order, int lo, int hi, int[] positions) {
+		int longest = 0;
+		for(int i=lo; i<hi; i++) {
+			longest = Math.max(longest, ss[order[i]].length());
+		}
+		//the state of the walk after d characters of the last pattern have matched
+		Node[] nodes = new Node[longest+1];
+		int[] starts = new int[longest+1];
+		int[] ends = new int[longest+1];
+		int[] endPositions = new int[longest+1];
+		nodes[0] = this.root;
+		starts[0] = 0;
+		ends[0] = -1;
+		endPositions[0] = 0;
+		//the number of characters of the last pattern that matched
+		int matched = 0;
+		String last = "";
+		
+		for(int p=lo; p<hi; p++) {
+			String s = ss[order[p]];
+			int shared = 0;
+			int limit = Math.min(last.length(), s.length());
+			while(shared<limit && last.charAt(shared)==s.charAt(shared)) {
+				shared++;
+			}
+			last = s;
+			//the last pattern failed on a character this pattern shares with it
+			if(shared>matched) {
+				positions[order[p]] = -1;
+				continue;
+			}
+			int d = shared;
+			Node current = nodes[d];
+			int cStart = starts[d];
+			int cEnd = ends[d];
+			int endPosition = endPositions[d];
+			boolean found = true;
+			for(; d<s.length(); d++) {
+				int c = s.charAt(d);
+				if(cStart > cEnd) {
+					current = current.getLinks(c);
+					if(current == null) {
+						found = false;
+						break;
+					}
+					cStart = current.start;
+					cEnd = current.end;
+				}
+				if(c == base(cStart)) {
+					endPosition = cStart;
+					cStart++;
+				} else {
+					found = false;
+					break;
+				}
+				nodes[d+1] = current;
+				starts[d+1] = cStart;
+				ends[d+1] = cEnd;
+				endPositions[d+1] = endPosition;
+			}
+			matched = d;
+			positions[order[p]] = found ? endPosition-s.length()+1 : -1;
+		}
+	}
+
+//walks the sorted patterns from lo to hi. The range is split in half until it is no bigger than batch
+	private class FindBatches extends RecursiveAction {
+		private final static long serialVersionUID = 1L;
+		private String[] ss;
+		private int[] order;
+		private int[] positions;
+		private int lo;
+		private int hi;
+		private int batch;
+		
+		private FindBatches(String[] ss, int[] order, int[] positions, int lo, int hi, int batch) {
+			this.ss = ss;
+			this.order = order;
+			this.positions = positions;
+			this.lo = lo;
+			this.hi = hi;
+			this.batch = batch;
+		}
+		
+		@Override
+		protected void compute() {
+			if(hi-lo<=batch) {
+				findBatch(ss, order, lo, hi, positions);
+			} else {
+				int mid = (lo+hi)>>>1;
+				invokeAll(new FindBatches(ss, order, positions, lo, mid, batch),
+						new FindBatches(ss, order, positions, mid, hi, batch));
+			}
+		}
+	}
 /*
  * n = size of word1
  * m = size of word2
@@ -361,16 +829,27 @@ public class CompressedSuffixTrie {
 //it then outputs the LCS to a provided output file. It also returns the degree of similarity between
 //the DNA sequences
 	public static float similarityAnalyser(String f1, String f2, String f3) {
+		//get the DNA sequences from the two files
+		char[] word1 = getSequenceFromFile(f1);
+		char[] word2 = getSequenceFromFile(f2);
+		return analyseSequences(word1, word2, f3);
+	}
+
+//the same as similarityAnalyser for sequences that have already been loaded with PackedSequence.load.
+//The LCS matrix needs (n+1)(m+1) ints so unpacking the two sequences adds almost nothing to it.
+	public static float similarityAnalyser(PackedSequence s1, PackedSequence s2, String f3) {
+		char[] word1 = (s1!=null) ? s1.toCharArray() : null;
+		char[] word2 = (s2!=null) ? s2.toCharArray() : null;
+		return analyseSequences(word1, word2, f3);
+	}
+
+//computes the LCS of the two sequences, writes it to f3 and returns the degree of similarity
+	private static float analyseSequences(char[] word1, char[] word2, String f3) {
 		float result = 0;
 		int w1size;
 		int w2size;
-		char[] word1;
-		char[] word2;
 		char[] word3;
 		int[][] lcs;
-		//get the DNA sequences from the two files
-		word1 = getSequenceFromFile(f1);
-		word2 = getSequenceFromFile(f2);
 		if(word1==null || word2==null) {
 			System.out.println("Either file1 or file2 do not contain a correct sequence.");
 			return result;
@@ -378,12 +857,17 @@ public class CompressedSuffixTrie {
 		
 		w1size = word1.length;
 		w2size = word2.length;
-		lcs = new int[w1size+1][w2size+1];
-		//populate the matrix with the initial values and then start comparing the the two sequences
-		initialiseTheLCS(lcs,w1size, w2size);
-		populateMatrix(lcs, word1, word2);
-		//grab the LCS from the matrix table and return it to the word
-		word3 = findSequence(lcs, word1, word2);
+		if((long)(w1size+1)*(w2size+1) > linearSpaceThreshold) {
+			//the matrix is too big so find the same LCS without storing it
+			word3 = linearSpaceLCS(word1, word2);
+		} else {
+			lcs = new int[w1size+1][w2size+1];
+			//populate the matrix with the initial values and then start comparing the the two sequences
+			initialiseTheLCS(lcs,w1size, w2size);
+			populateMatrix(lcs, word1, word2);
+			//grab the LCS from the matrix table and return it to the word
+			word3 = findSequence(lcs, word1, word2);
+		}
 		if(word3!=null) {
 			//the degree of similarity = length of the LCS/max(length of sequence1,length of sequence2)
 			result = (float) word3.length/Math.max(word1.length, word2.length);
@@ -392,6 +876,248 @@ public class CompressedSuffixTrie {
 		
 		return result;
 	}
+//This function returns the same degree of similarity as similarityAnalyser but doesn't find the LCS itself
+//or write anything to a file. Only the length of the LCS is computed(see lcsLength) which is much faster.
+	public static float similarityScore(String f1, String f2) {
+		return similarityScore(PackedSequence.load(f1), PackedSequence.load(f2));
+	}
+
+//the same as similarityScore for sequences that have already been loaded with PackedSequence.load
+	public static float similarityScore(PackedSequence s1, PackedSequence s2) {
+		float result = 0;
+		if(s1==null || s2==null) {
+			System.out.println("Either file1 or file2 do not contain a correct sequence.");
+			return result;
+		}
+		//the degree of similarity = length of the LCS/max(length of sequence1,length of sequence2)
+		result = (float) lcsLength(s1, s2)/Math.max(s1.length, s2.length);
+		return result;
+	}
+
+/*
+ * Analysis of lcsLength:
+ * n = size of the longer sequence
+ * m = size of the shorter sequence
+ * 
+ * f(n,m) = O(n*m/64) time and O(m/64) space
+ * 
+ * This is the bit-parallel LCS of Allison-Dix(in the form given by Hyyro). Each bit of the vector V stands for one
+ * column of a row of the LCS matrix and a 0 bit marks a column where the LCS length goes up by one. A whole row is
+ * computed from the one before it with an AND, an ADD(carried across the longs), an AND NOT and an OR, so 64 cells
+ * of the matrix are done with each long. The LCS length is the number of 0 bits in the last row.
+ */
+//computes the length of the LCS of the two packed sequences
+	public static int lcsLength(PackedSequence s1, PackedSequence s2) {
+		//the bit vectors run along the shorter sequence
+		PackedSequence a = (s1.length <= s2.length) ? s1 : s2;
+		PackedSequence b = (a==s1) ? s2 : s1;
+		int m = a.length;
+		int words = (m+63)>>>6;
+		if(m==0) {
+			return 0;
+		}
+		//matches[c] has bit i set where the base at i of a has the code c
+		long[][] matches = new long[4][words];
+		for(int i=0; i<m; i++) {
+			matches[a.code(i)][i>>>6] |= 1L << (i&63);
+		}
+		long[] v = new long[words];
+		Arrays.fill(v, -1L);
+		
+		for(int j=0; j<b.length; j++) {
+			long[] match = matches[b.code(j)];
+			long carry = 0;
+			for(int k=0; k<words; k++) {
+				long vk = v[k];
+				long u = vk & match[k];
+				//add u to vk along with the carry from the previous long
+				long sum = vk + carry;
+				carry = (carry!=0 && sum==0) ? 1 : 0;
+				sum += u;
+				if(Long.compareUnsigned(sum, u) < 0) {
+					carry = 1;
+				}
+				v[k] = sum | (vk & ~match[k]);
+			}
+		}
+		//count the 0 bits in the first m bits of v
+		int ones = 0;
+		for(int k=0; k<words-1; k++) {
+			ones += Long.bitCount(v[k]);
+		}
+		int lastBits = m-((words-1)<<6);
+		long lastMask = (lastBits==64) ? -1L : (1L<<lastBits)-1;
+		ones += Long.bitCount(v[words-1] & lastMask);
+		return m-ones;
+	}
+/*
+ * Analysis of similarityMatrix:
+ * k = number of files
+ * n = size of the longest sequence
+ * p = number of threads
+ * 
+ * f(k,n,p) = O(k^2 * n^2/64 / p)
+ * 
+ * Each file is read once(k loads in parallel). Each of the k(k-1)/2 pairs is scored once with lcsLength and the
+ * pairs are split into TILE x TILE tiles which are shared out between the threads of the ForkJoinPool.
+ */
+//This function computes the degree of similarity between every pair of sequences in the files and writes the
+//matrix to the CSV file output(if output isn't null). It uses one thread for each processor.
+	public static float[][] similarityMatrix(String[] files, String output) {
+		return similarityMatrix(files, output, Runtime.getRuntime().availableProcessors());
+	}
+
+//the same as similarityMatrix but with the number of threads given. A file that doesn't contain a correct
+//sequence has a similarity of 0 with every other file
+	public static float[][] similarityMatrix(String[] files, String output, int threads) {
+		int k = files.length;
+		PackedSequence[] cache = new PackedSequence[k];
+		float[][] matrix = new float[k][k];
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+		
+		try {
+			//load each sequence once and then compute the tiles on or above the diagonal
+			pool.invoke(new LoadSequences(files, cache, 0, k));
+			int tiles = (k+TILE-1)/TILE;
+			int[] tileRows = new int[tiles*(tiles+1)/2];
+			int[] tileCols = new int[tileRows.length];
+			int t = 0;
+			for(int r=0; r<tiles; r++) {
+				for(int c=r; c<tiles; c++) {
+					tileRows[t] = r;
+					tileCols[t] = c;
+					t++;
+				}
+			}
+			pool.invoke(new SimilarityTiles(cache, matrix, tileRows, tileCols, 0, t));
+		} finally {
+			pool.shutdown();
+		}
+		
+		if(output!=null) {
+			matrixToFile(output, files, matrix);
+		}
+		return matrix;
+	}
+
+//computes the similarity of every pair of sequences in one tile of the matrix
+	private static void computeTile(PackedSequence[] cache, float[][] matrix, int tileRow, int tileCol) {
+		int k = cache.length;
+		for(int i=tileRow*TILE; i<Math.min(k, (tileRow+1)*TILE); i++) {
+			for(int j=Math.max(i, tileCol*TILE); j<Math.min(k, (tileCol+1)*TILE); j++) {
+				float score = 0;
+				if(cache[i]!=null && cache[j]!=null) {
+					if(i==j) {
+						//a sequence is completely similar to itself(0/0 for an empty sequence just like similarityScore)
+						score = (float) cache[i].length/cache[i].length;
+					} else {
+						score = (float) lcsLength(cache[i], cache[j])/Math.max(cache[i].length, cache[j].length);
+					}
+				}
+				matrix[i][j] = score;
+				matrix[j][i] = score;
+			}
+		}
+	}
+
+//writes the similarity matrix as a CSV file with the file names along the first row and column
+	private static void matrixToFile(String outputFile, String[] files, float[][] matrix) {
+		BufferedWriter out = null;
+		
+		try {
+			out = new BufferedWriter(new FileWriter(outputFile, false));
+		} catch (IOException e) {
+			System.out.println("Cannot create or find output file. Exiting.");
+			return;
+		}
+		try {
+			out.write("file");
+			for(int j=0; j<files.length; j++) {
+				out.write(",");
+				out.write(files[j]);
+			}
+			out.newLine();
+			for(int i=0; i<files.length; i++) {
+				out.write(files[i]);
+				for(int j=0; j<files.length; j++) {
+					out.write(",");
+					out.write(Float.toString(matrix[i][j]));
+				}
+				out.newLine();
+			}
+		} catch (IOException e1) {
+			System.out.println("Cannot write to the file. Exiting");
+		}
+		
+		try {
+			out.close();
+		} catch (IOException e) {
+			System.out.println("Cannot close the file. Exiting");
+			return;
+		}
+	}
+
+//loads the sequences of the files from lo to hi into the cache. The range is split in half until there is one file
+	private static class LoadSequences extends RecursiveAction {
+		private final static long serialVersionUID = 1L;
+		private String[] files;
+		private PackedSequence[] cache;
+		private int lo;
+		private int hi;
+		
+		private LoadSequences(String[] files, PackedSequence[] cache, int lo, int hi) {
+			this.files = files;
+			this.cache = cache;
+			this.lo = lo;
+			this.hi = hi;
+		}
+		
+		@Override
+		protected void compute() {
+			if(hi-lo<=1) {
+				if(hi>lo) {
+					cache[lo] = PackedSequence.load(files[lo]);
+				}
+			} else {
+				int mid = (lo+hi)>>>1;
+				invokeAll(new LoadSequences(files, cache, lo, mid), new LoadSequences(files, cache, mid, hi));
+			}
+		}
+	}
+
+//computes the tiles from lo to hi of the similarity matrix. The range is split in half until there is one tile
+	private static class SimilarityTiles extends RecursiveAction {
+		private final static long serialVersionUID = 1L;
+		private PackedSequence[] cache;
+		private float[][] matrix;
+		private int[] tileRows;
+		private int[] tileCols;
+		private int lo;
+		private int hi;
+		
+		private SimilarityTiles(PackedSequence[] cache, float[][] matrix, int[] tileRows, int[] tileCols, int lo, int hi) {
+			this.cache = cache;
+			this.matrix = matrix;
+			this.tileRows = tileRows;
+			this.tileCols = tileCols;
+			this.lo = lo;
+			this.hi = hi;
+		}
+		
+		@Override
+		protected void compute() {
+			if(hi-lo<=1) {
+				if(hi>lo) {
+					computeTile(cache, matrix, tileRows[lo], tileCols[lo]);
+				}
+			} else {
+				int mid = (lo+hi)>>>1;
+				invokeAll(new SimilarityTiles(cache, matrix, tileRows, tileCols, lo, mid),
+						new SimilarityTiles(cache, matrix, tileRows, tileCols, mid, hi));
+			}
+		}
+	}
+
 /*
  * Analysis of outputToFile
  * f(n) = 8
@@ -496,6 +1222,98 @@ public class CompressedSuffixTrie {
 		}
 		return result;
 	}
+/*
+ * Analysis of linearSpaceLCS:
+ * n = size of the longer sequence
+ * m = size of the shorter sequence
+ * 
+ * f(n,m) = O(nm log(n/b)) time and O(m log(n/b) + b*m) space where b is the number of rows solved directly
+ * 
+ * This is a divide and conquer in the style of Hirschberg's algorithm. Rows of the LCS matrix run along the
+ * shorter sequence so only O(m) ints are stored for each level of the recursion. Each level recomputes at most
+ * half of the rows of the matrix, and a level stops dividing once its rows fit into BLOCK_CELLS.
+ * 
+ * Hirschberg's algorithm finds an LCS but not necessarily the one findSequence walks back through. To give the same
+ * LCS the walk back is simulated exactly: the bottom half of the rows is walked first to find the column where the walk
+ * reaches the middle row, then the top half is walked from that column.
+ */
+//this method finds the same longest common subsequence as findSequence without the (n+1)(m+1) LCS matrix
+	private static char[] linearSpaceLCS(char[] w1, char[] w2) {
+		//findSequence moves up(through w1) on a strict improvement and left(through w2) otherwise.
+		//If the rows are transposed then the same walk moves up on a tie.
+		boolean transposed = w2.length > w1.length;
+		char[] rows = transposed ? w2 : w1;
+		char[] cols = transposed ? w1 : w2;
+		char[] found = new char[cols.length];
+		int[] next = {cols.length};
+		
+		if(rows.length>0) {
+			walkBack(rows, cols, transposed, 0, rows.length, new int[cols.length+1], cols.length, found, next);
+		}
+		//the characters were stored from the back of the array
+		char[] result = new char[found.length-next[0]];
+		System.arraycopy(found, next[0], result, 0, result.length);
+		return result;
+	}
+
+//Walk back from the cell (hi, col) until the walk reaches the row lo. top holds row lo of the LCS matrix.
+//The characters of the LCS are put into found before the index next[0]. Returns the column the walk reaches
+//row lo at or -1 if the walk finished before getting there.
+	private static int walkBack(char[] rows, char[] cols, boolean tieUp, int lo, int hi, int[] top, int col, char[] found, int[] next) {
+		int blockRows = Math.max(1, BLOCK_CELLS/(col+1) - 1);
+		if(hi-lo <= blockRows) {
+			//the rows are small enough to hold so walk back exactly the same as findSequence does
+			int[][] block = new int[hi-lo+1][];
+			block[0] = top;
+			for(int x=1; x<=hi-lo; x++) {
+				block[x] = nextRow(rows[lo+x-1], cols, block[x-1], col);
+			}
+			int x = hi;
+			int y = col;
+			while(x>lo && y>0) {
+				if(rows[x-1] == cols[y-1]) {
+					found[--next[0]] = rows[x-1];
+					x--;
+					y--;
+				} else {
+					int up = block[x-1-lo][y];
+					int left = block[x-lo][y-1];
+					if(up > left || (tieUp && up == left)) {
+						x--;
+					} else {
+						y--;
+					}
+				}
+			}
+			return (x==lo) ? y : -1;
+		}
+		
+		//get the middle row, walk back through the bottom half and then through the top half
+		int mid = (lo+hi)>>>1;
+		int[] middle = top;
+		for(int x=lo; x<mid; x++) {
+			middle = nextRow(rows[x], cols, middle, col);
+		}
+		int reached = walkBack(rows, cols, tieUp, mid, hi, middle, col, found, next);
+		if(reached < 0) {
+			return -1;
+		}
+		return walkBack(rows, cols, tieUp, lo, mid, top, reached, found, next);
+	}
+
+//compute the next row of the LCS matrix up to the column col(see populateMatrix)
+	private static int[] nextRow(char c, char[] cols, int[] previous, int col) {
+		int[] row = new int[col+1];
+		for(int y=1; y<=col; y++) {
+			if(c == cols[y-1]) {
+				row[y] = previous[y-1]+1;
+			} else {
+				row[y] = Math.max(previous[y], row[y-1]);
+			}
+		}
+		return row;
+	}
+
 /*
  * Analysis of initialiseTheLCS:
  * n = size of word1(w1)
@@ -560,9 +1378,9 @@ public class CompressedSuffixTrie {
 	}
 	
 }
-//this class has a dual purpose to work with both the linked list and suffix trie
+//a node of the suffix trie
 class Node {
-//when used for the suffix trie the node stores the links to its children in a hash table. The
+//the node stores the links to its children in a hash table. The
 //the children a stored according to the character that it starts with. Since alphabetical characters
 //in Java can also be casted to their ASCII/Unicode value at a tiny operational cost, they can be stored
 //in an array using the arrays index as their value. To make sure the smallest amount of space is used each
@@ -580,21 +1398,11 @@ class Node {
 	public int start;
 	public int end;
 	public Node[] links;
+//the suffix link used while building the trie with Ukkonen's algorithm
+	public Node suffixLink;
+//the number of suffixes of the word that start with the characters from the root to this node
+	public int leaves;
 
-//the variables required to work with a linked list
-	public char element;
-	public Node next;
-
-/*
- * Analysis of Node(element) constructor:
- * f(n) = 1
- * - 1 assignment of variable
- */
-//constructor for the node to be used with the linked list
-	public Node(char element) {
-		this.element = element;
-	}
-	
 /*
  * Analysis of both Node(int start, int end) and Node() constructors:
  * f(n) = 11
@@ -659,40 +1467,69 @@ class Node {
 	}
 }
 
-//linked list which is used to originally store the number of characters from the file
-//and determine the length so as to then create the appropriate character array
-class LinkedList {
-	public Node head;
-	public int size;
-	
-/*
- * Analysis of constructors:
- * f(n) = 2
- *  Assigning values to each of the variables of the linked list
- */
-	public LinkedList() {
-		this.head = null;
+//iterates over the indexes of every suffix below a node of the suffix trie. The leaves that were only the terminator
+//are removed when the trie is finalised but they are still counted, so a suffix ends at a node exactly when the node
+//has more leaves than its children do. That suffix starts at the length of the word minus the depth of the node.
+class OccurrenceIterator implements PrimitiveIterator.OfInt {
+	private Node[] stack;
+	private int[] depths;
+	private int size;
+	private int wordLength;
+	//the next index to return or -1 if there are no more
+	private int nextIndex;
+
+	public OccurrenceIterator(Node node, int depth, int wordLength) {
+		this.stack = new Node[16];
+		this.depths = new int[16];
 		this.size = 0;
+		this.wordLength = wordLength;
+		if(node!=null) {
+			push(node, depth);
+		}
+		advance();
 	}
-	public LinkedList(Node node) {
-		this.head = node;
-		this.size = 1;
+
+	public boolean hasNext() {
+		return nextIndex>=0;
 	}
-/*
- * Analysis of add:
- * f(n) = 2+1+2
- *      = 5
- *  2 for assigning the head of the list to the current nodes next
- *  1 for assigning the current node to be the head
- *  2 for incrementing the size
- * 
- */
-//add acts likes a stack. So the word is stored in reversed order
-//but this method involves less computational work
-	public void add(Node node) {
-		node.next = this.head;
-		head = node;
+
+	public int nextInt() {
+		if(nextIndex<0) {
+			throw new NoSuchElementException();
+		}
+		int result = nextIndex;
+		advance();
+		return result;
+	}
+
+//go through the nodes depth first until one is found that a suffix ends at
+	private void advance() {
+		nextIndex = -1;
+		while(size>0 && nextIndex<0) {
+			size--;
+			Node node = stack[size];
+			int depth = depths[size];
+			int below = 0;
+			for(int i=0; i<node.links.length; i++) {
+				Node child = node.links[i];
+				if(child!=null) {
+					push(child, depth+child.end-child.start+1);
+					below += child.leaves;
+				}
+			}
+			if(node.leaves>below) {
+				nextIndex = wordLength-depth;
+			}
+		}
+	}
+
+	private void push(Node node, int depth) {
+		if(size==stack.length) {
+			stack = Arrays.copyOf(stack, size*2);
+			depths = Arrays.copyOf(depths, size*2);
+		}
+		stack[size] = node;
+		depths[size] = depth;
 		size++;
 	}
-	
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+/*
+ * Program Description: Benchmarks for CompressedSuffixTrie. Random and repetitive DNA sequences of the given lengths
+ *                      are generated and the following are measured:
+ *                      1. Building the trie(each construction) - time and bytes allocated per build
+ *                      2. findString throughput for patterns that are in the word(hits) and that aren't(misses)
+ *                      3. similarityAnalyser(the full LCS) and similarityScore latency against sequence length
+ *
+ *                      Each measurement is run a few times to warm up the JIT before the timed runs. It only needs the
+ *                      JDK so it can be run offline:
+ *
+ *                      javac *.java
+ *                      java CompressedSuffixTrieBenchmark [trie lengths] [-lcs similarity lengths]
+ *                      e.g. java CompressedSuffixTrieBenchmark 10000 100000 1000000 -lcs 1000 4000
+ *
+ */
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class CompressedSuffixTrieBenchmark {
+
+	private final static int WARMUP = 3;
+	private final static int RUNS = 5;
+	private final static int QUERIES = 100000;
+	private final static int PATTERN_LENGTH = 20;
+	//inserting every suffix is quadratic on repetitive words so it is skipped above this length
+	private final static int LEGACY_LIMIT = 20000;
+	private final static char[] DNA = {'A','C','G','T'};
+
+	//results are added to this so the JIT can't remove the work being measured
+	private static long sink;
+
+	public static void main(String[] args) throws IOException {
+		int[] trieLengths = {10000, 100000, 1000000};
+		int[] lcsLengths = {500, 1000, 2000, 4000};
+		int split = args.length;
+		for(int i=0; i<args.length; i++) {
+			if(args[i].equals("-lcs")) {
+				split = i;
+			}
+		}
+		if(split>0) {
+			trieLengths = parseLengths(args, 0, split);
+		}
+		if(split<args.length-1) {
+			lcsLengths = parseLengths(args, split+1, args.length);
+		}
+
+		System.out.println("benchmark            sequence    length  construction      result");
+		for(int length : trieLengths) {
+			benchTrie("random", randomSequence(length, 1), length);
+			benchTrie("repetitive", repetitiveSequence(length, 2), length);
+		}
+		for(int length : lcsLengths) {
+			benchSimilarity("random", randomSequence(length, 3), randomSequence(length, 4), length);
+			benchSimilarity("repetitive", repetitiveSequence(length, 5), repetitiveSequence(length, 6), length);
+		}
+		System.out.println("(sink " + sink + ")");
+	}
+
+//the lengths given on the command line from args[from] up to args[to]
+	private static int[] parseLengths(String[] args, int from, int to) {
+		int[] lengths = new int[to-from];
+		for(int i=from; i<to; i++) {
+			lengths[i-from] = Integer.parseInt(args[i]);
+		}
+		return lengths;
+	}
+
+//a sequence where every base is chosen at random
+	private static char[] randomSequence(int length, long seed) {
+		Random random = new Random(seed);
+		char[] sequence = new char[length];
+		for(int i=0; i<length; i++) {
+			sequence[i] = DNA[random.nextInt(4)];
+		}
+		return sequence;
+	}
+
+//a short random unit repeated over and over with 1% of the bases changed, which gives the trie long shared branches
+	private static char[] repetitiveSequence(int length, long seed) {
+		Random random = new Random(seed);
+		char[] unit = randomSequence(50, seed);
+		char[] sequence = new char[length];
+		for(int i=0; i<length; i++) {
+			sequence[i] = (random.nextInt(100)==0) ? DNA[random.nextInt(4)] : unit[i%unit.length];
+		}
+		return sequence;
+	}
+
+//writes the sequence to a temporary file because the trie and similarityAnalyser read from files
+	private static String toFile(char[] sequence) throws IOException {
+		File file = File.createTempFile("bench", ".txt");
+		file.deleteOnExit();
+		Writer out = new BufferedWriter(new FileWriter(file));
+		out.write(sequence);
+		out.close();
+		return file.getPath();
+	}
+
+	private static void benchTrie(String kind, char[] sequence, int length) throws IOException {
+		final String file = toFile(sequence);
+		final PackedSequence packed = PackedSequence.load(file);
+
+		if(length<=LEGACY_LIMIT) {
+			measure("build", kind, length, "insertSuffixes", new Runnable() {
+				public void run() {
+					sink += new CompressedSuffixTrie(file).root.links.length;
+				}
+			}, 1);
+		}
+		measure("build", kind, length, "ukkonen", new Runnable() {
+			public void run() {
+				sink += new CompressedSuffixTrie(file, true).root.links.length;
+			}
+		}, 1);
+		measure("build", kind, length, "packed", new Runnable() {
+			public void run() {
+				sink += new CompressedSuffixTrie(packed).root.links.length;
+			}
+		}, 1);
+
+		//hits are taken from the word itself, misses are random patterns that the trie can't find
+		final CompressedSuffixTrie trie = new CompressedSuffixTrie(packed);
+		Random random = new Random(length);
+		final String[] hits = new String[QUERIES];
+		final String[] misses = new String[QUERIES];
+		for(int i=0; i<QUERIES; i++) {
+			int start = random.nextInt(Math.max(1, length-PATTERN_LENGTH));
+			hits[i] = new String(sequence, start, Math.min(PATTERN_LENGTH, length-start));
+			do {
+				misses[i] = new String(randomSequence(PATTERN_LENGTH, random.nextLong()));
+			} while(trie.findString(misses[i])>=0);
+		}
+		measure("findString hit", kind, length, "ukkonen", new Runnable() {
+			public void run() {
+				for(int i=0; i<QUERIES; i++) {
+					sink += trie.findString(hits[i]);
+				}
+			}
+		}, QUERIES);
+		measure("findString miss", kind, length, "ukkonen", new Runnable() {
+			public void run() {
+				for(int i=0; i<QUERIES; i++) {
+					sink += trie.findString(misses[i]);
+				}
+			}
+		}, QUERIES);
+	}
+
+	private static void benchSimilarity(String kind, char[] first, char[] second, int length) throws IOException {
+		final String file1 = toFile(first);
+		final String file2 = toFile(second);
+		File output = File.createTempFile("bench", ".lcs");
+		output.deleteOnExit();
+		final String file3 = output.getPath();
+
+		measure("similarityAnalyser", kind, length, "-", new Runnable() {
+			public void run() {
+				sink += (long) (1000*CompressedSuffixTrie.similarityAnalyser(file1, file2, file3));
+			}
+		}, 1);
+		measure("similarityScore", kind, length, "-", new Runnable() {
+			public void run() {
+				sink += (long) (1000*CompressedSuffixTrie.similarityScore(file1, file2));
+			}
+		}, 1);
+	}
+
+//runs the benchmark WARMUP times without timing it and then RUNS times with timing. Prints the average time
+//and the bytes allocated for each operation(a run does ops operations)
+	private static void measure(String name, String kind, int length, String construction, Runnable benchmark, int ops) {
+		for(int i=0; i<WARMUP; i++) {
+			benchmark.run();
+		}
+		long bytesBefore = allocatedBytes();
+		long start = System.nanoTime();
+		for(int i=0; i<RUNS; i++) {
+			benchmark.run();
+		}
+		long elapsed = System.nanoTime()-start;
+		long bytes = allocatedBytes()-bytesBefore;
+		double perOp = (double) elapsed/((long) RUNS*ops);
+
+		String result;
+		if(ops==1) {
+			result = String.format("%.3f ms/op", perOp/1e6);
+		} else {
+			result = String.format("%.0f ops/s", 1e9/perOp);
+		}
+		if(bytesBefore>=0) {
+			result += String.format("  %.1f B/op", (double) bytes/((long) RUNS*ops));
+		}
+		System.out.format("%-20s %-10s %9d  %-15s %s%n", name, kind, length, construction, result);
+	}
+
+//the number of bytes this thread has allocated so far or -1 if the JVM can't tell us
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Program Description: A read only compressed suffix trie that is loaded from a snapshot written by
+ *                      CompressedSuffixTrie.save. The file is memory mapped and the queries read the node columns
+ *                      straight from the mapping, so nothing is rebuilt and no Node objects are created. Opening a
+ *                      snapshot only maps the file which means queries can be answered straight after startup.
+ *
+ *                      Each column of the snapshot is mapped on its own, so a column can be at most 2GB
+ *                      (about 500 million nodes).
+ *
+ */
+
+import java.io.*;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+public class MappedSuffixTrie {
+
+	//"CST1" at the start of every snapshot
+	final static int MAGIC = 0x43535431;
+	private final static int HEADER_BYTES = 16;
+
+	private int length;
+	private int nodes;
+	private boolean counted;
+	private LongBuffer bases;
+	private IntBuffer starts;
+	private IntBuffer ends;
+	private IntBuffer leaves;
+	//one column for each of A, C, G and T
+	private IntBuffer[] children;
+
+/*
+ * Analysis of load:
+ * f(n) = O(1)
+ *
+ * Only the header is read. The columns are mapped and the operating system reads their pages the first time a
+ * query touches them.
+ */
+//opens the snapshot in the file f. Returns null if the file isn't a snapshot or can't be read
+	public static MappedSuffixTrie load(String f) {
+		RandomAccessFile inputFile = null;
+		MappedSuffixTrie result = new MappedSuffixTrie();
+
+		try {
+			inputFile = new RandomAccessFile(f, "r");
+		} catch (FileNotFoundException e) {
+			System.out.println("Snapshot file not found");
+			return null;
+		}
+
+		try {
+			FileChannel channel = inputFile.getChannel();
+			if(channel.size()<HEADER_BYTES || inputFile.readInt()!=MAGIC) {
+				System.out.println("File is not a suffix trie snapshot");
+				inputFile.close();
+				return null;
+			}
+			result.length = inputFile.readInt();
+			result.nodes = inputFile.readInt();
+			result.counted = inputFile.readInt()==1;
+
+			long offset = HEADER_BYTES;
+			long sequenceBytes = 8L*((result.length+31)/32);
+			long columnBytes = 4L*result.nodes;
+			if(result.length<0 || result.nodes<0) {
+				System.out.println("File is not a suffix trie snapshot");
+				inputFile.close();
+				return null;
+			}
+			//a single mapping can't be more than Integer.MAX_VALUE bytes
+			if(sequenceBytes>Integer.MAX_VALUE || columnBytes>Integer.MAX_VALUE) {
+				System.out.println("Snapshot file is too large to map");
+				inputFile.close();
+				return null;
+			}
+			if(channel.size() != offset+sequenceBytes+7*columnBytes) {
+				System.out.println("Snapshot file is incomplete");
+				inputFile.close();
+				return null;
+			}
+			result.bases = channel.map(FileChannel.MapMode.READ_ONLY, offset, sequenceBytes).asLongBuffer();
+			offset += sequenceBytes;
+			result.starts = channel.map(FileChannel.MapMode.READ_ONLY, offset, columnBytes).asIntBuffer();
+			offset += columnBytes;
+			result.ends = channel.map(FileChannel.MapMode.READ_ONLY, offset, columnBytes).asIntBuffer();
+			offset += columnBytes;
+			result.leaves = channel.map(FileChannel.MapMode.READ_ONLY, offset, columnBytes).asIntBuffer();
+			offset += columnBytes;
+			result.children = new IntBuffer[4];
+			for(int c=0; c<4; c++) {
+				result.children[c] = channel.map(FileChannel.MapMode.READ_ONLY, offset, columnBytes).asIntBuffer();
+				offset += columnBytes;
+			}
+		} catch (IOException e1) {
+			System.out.println("Cannot read from the snapshot file");
+			return null;
+		}
+
+		//the mappings stay valid after the file is closed
+		try {
+			inputFile.close();
+		} catch (IOException e) {
+			System.out.println("Cannot close the snapshot file");
+			return null;
+		}
+		return result;
+	}
+
+//the 2 bit code of the base at index i of the word
+	private int code(int i) {
+		return (int)(bases.get(i>>>5) >>> ((i&31)<<1)) & 3;
+	}
+
+//Function is used to determine if a substring is present within the word. This gives the same index
+//as CompressedSuffixTrie.findString for the trie the snapshot was saved from
+	public int findString(String s) {
+		int[] endPosition = new int[1];
+		if(walk(s, endPosition) < 0) {
+			return -1;
+		}
+		return endPosition[0]-s.length()+1;
+	}
+
+//returns the number of times the pattern occurs in the word(see CompressedSuffixTrie.countString)
+	public int countString(String s) {
+		if(!counted) {
+			System.out.println("Occurrences are only recorded when the trie is built in linear mode");
+			return -1;
+		}
+		if(s.length()==0) {
+			return 0;
+		}
+		int node = walk(s, new int[1]);
+		if(node < 0) {
+			return 0;
+		}
+		return leaves.get(node);
+	}
+
+//walk the pattern down from the root(node 0) the same way as CompressedSuffixTrie.findString. Returns the node the
+//pattern ends on or -1 if the pattern isn't in the word. The index of the last matched character goes in endPosition[0]
+	private int walk(String s, int[] endPosition) {
+		int current = 0;
+		int cStart = 0;
+		int cEnd = -1;
+		endPosition[0] = 0;
+
+		for(int i=0; i<s.length(); i++) {
+			int c = PackedSequence.encode(s.charAt(i));
+			if(c < 0) {
+				return -1;
+			}
+			if(cStart > cEnd) {
+				current = children[c].get(current);
+				if(current < 0) {
+					return -1;
+				}
+				cStart = starts.get(current);
+				cEnd = ends.get(current);
+			}
+			if(c == code(cStart)) {
+				endPosition[0] = cStart;
+				cStart++;
+			} else {
+				return -1;
+			}
+		}
+		return current;
+	}
+
+//the number of characters in the word
+	public int length() {
+		return length;
+	}
+
+}
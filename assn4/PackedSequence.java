@@ -0,0 +1,147 @@
+/*
+ * Program Description: A DNA sequence stored with 2 bits per base. The file is memory mapped and scanned byte by byte,
+ *                      so the only memory used is the long array holding the packed bases(a quarter of a byte per base).
+ *                      32 bases are stored in each long with the first base in the lowest 2 bits.
+ *
+ *                      A = 0, C = 1, G = 2, T = 3
+ *
+ */
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+public class PackedSequence {
+
+	private final static char[] DECODE = {'A','C','G','T'};
+	//the largest part of the file that is mapped at once
+	private final static long MAP_WINDOW = Integer.MAX_VALUE;
+
+	public long[] bases;
+	public int length;
+
+	public PackedSequence(long[] bases, int length) {
+		this.bases = bases;
+		this.length = length;
+	}
+
+/*
+ * Analysis of load:
+ * n = number of bytes in the file
+ * f(n) = O(n)
+ *
+ * Every byte of the file is looked at exactly once. Bases are written straight into the long array so no objects
+ * are created per character.
+ */
+//this function memory maps a file, checks that it only contains A,C,G,T and whitespace and packs the bases.
+//Just like getSequenceFromFile it prints the problem and returns null if the sequence can't be obtained
+	public static PackedSequence load(String f) {
+		RandomAccessFile inputFile = null;
+		PackedSequence result = null;
+
+		try {
+			inputFile = new RandomAccessFile(f, "r");
+		} catch (FileNotFoundException e) {
+			System.out.println("File f not found");
+			return null;
+		}
+
+		try {
+			FileChannel channel = inputFile.getChannel();
+			long size = channel.size();
+			if(size/4 > Integer.MAX_VALUE) {
+				System.out.println("File f is too large. Cannot obtain sequence");
+				inputFile.close();
+				return null;
+			}
+			//there can't be more bases than there are bytes in the file
+			long[] packed = new long[(int)((size+31)/32)];
+			long count = 0;
+
+			for(long offset=0; offset<size; offset+=MAP_WINDOW) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_WINDOW, size-offset));
+				while(buffer.hasRemaining()) {
+					long code;
+					switch(buffer.get()) {
+						case 'A': code = 0; break;
+						case 'C': code = 1; break;
+						case 'G': code = 2; break;
+						case 'T': code = 3; break;
+						//whitespace is not part of the sequence
+						case ' ': case '\t': case '\n': case '\r': case '\f': case 0x0B:
+							continue;
+						default:
+							System.out.println("File has non-DNA characters");
+							inputFile.close();
+							return null;
+					}
+					packed[(int)(count>>>5)] |= code << ((count&31)<<1);
+					count++;
+				}
+			}
+			if(count > Integer.MAX_VALUE) {
+				System.out.println("File f is too large. Cannot obtain sequence");
+				inputFile.close();
+				return null;
+			}
+			//whitespace in the file means the array can be shrunk
+			int used = (int)((count+31)/32);
+			if(used < packed.length) {
+				packed = Arrays.copyOf(packed, used);
+			}
+			result = new PackedSequence(packed, (int)count);
+		} catch (IOException e) {
+			System.out.println("Cannot read from file f. Cannot obtain sequence");
+			return null;
+		}
+
+		try {
+			inputFile.close();
+		} catch (IOException e) {
+			System.out.println("Cannot close the file. Cannot obtain sequence");
+			return null;
+		}
+		return result;
+	}
+
+//packs a character array of A,C,G and T into a new packed sequence
+	public static PackedSequence pack(char[] word) {
+		long[] packed = new long[(word.length+31)/32];
+		for(int i=0; i<word.length; i++) {
+			packed[i>>>5] |= (long)encode(word[i]) << ((i&31)<<1);
+		}
+		return new PackedSequence(packed, word.length);
+	}
+
+//the 2 bit code of a base or -1 if the character isn't a base
+	public static int encode(char c) {
+		switch(c) {
+			case 'A': return 0;
+			case 'C': return 1;
+			case 'G': return 2;
+			case 'T': return 3;
+			default: return -1;
+		}
+	}
+
+//the 2 bit code(0..3) of the base at index i
+	public int code(int i) {
+		return (int)(bases[i>>>5] >>> ((i&31)<<1)) & 3;
+	}
+
+//the base at index i as a character
+	public char charAt(int i) {
+		return DECODE[code(i)];
+	}
+
+//unpack the whole sequence into a character array
+	public char[] toCharArray() {
+		char[] result = new char[length];
+		for(int i=0; i<length; i++) {
+			result[i] = charAt(i);
+		}
+		return result;
+	}
+
+}
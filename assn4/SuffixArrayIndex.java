@@ -0,0 +1,345 @@
+/*
+ * Program Description: A compact alternative to CompressedSuffixTrie. Instead of a tree of Nodes the word is indexed
+ *                      by a suffix array which is a plain int array built with SA-IS in linear time. findString
+ *                      answers the same queries as CompressedSuffixTrie.findString by binary searching the suffix
+ *                      array.
+ *
+ *                      Memory use is 4 bytes for each entry of the suffix array plus the word itself, compared to a
+ *                      Node object(with its links array) for every leaf and internal node of the trie. A sparse table
+ *                      of the smallest start in each block of BLOCK suffixes adds less than 4 bytes for each entry
+ *                      again, so the first occurrence is found without looking at every occurrence.
+ *
+ */
+
+import java.util.Arrays;
+
+public class SuffixArrayIndex {
+
+	//the number of suffix array entries that share one entry of the sparse table
+	private final static int BLOCK = 32;
+
+	public char[] word;
+	//suffixArray[i] is the start of the i-th smallest suffix of the word
+	public int[] suffixArray;
+	//blockMin[j][b] is the smallest start in the 2^j blocks of the suffix array that begin with block b
+	private int[][] blockMin;
+
+/*
+ * Analysis of SuffixArrayIndex:
+ * n = size of the word
+ * f(n) = O(n)
+ *
+ * getting the word from the file is linear(see analysis of getSequenceFromFile in CompressedSuffixTrie)
+ * encoding the word is linear, SA-IS is linear and so is the sparse table(see analysis of buildBlockMin).
+ */
+//The constructor builds the suffix array from the word that is found in the file f
+	public SuffixArrayIndex(String f) {
+		char[] sequence = CompressedSuffixTrie.getSequenceFromFile(f);
+		if(sequence!=null) {
+			this.word = sequence;
+			int n = word.length;
+			//encode the word as 1..4 with a 0 sentinel at the end which is smaller than every other character
+			int[] s = new int[n+1];
+			for(int i=0; i<n; i++) {
+				s[i] = encode(word[i]);
+			}
+			s[n] = 0;
+			int[] sa = new int[n+1];
+			sais(s, sa, n+1, 4);
+			//the sentinel suffix is always first so it can be dropped
+			this.suffixArray = new int[n];
+			System.arraycopy(sa, 1, suffixArray, 0, n);
+			this.blockMin = buildBlockMin(suffixArray);
+		}
+	}
+
+//the rank of each DNA character in the alphabet. A < C < G < T
+	private static int encode(char c) {
+		switch(c) {
+			case 'A': return 1;
+			case 'C': return 2;
+			case 'G': return 3;
+			default: return 4;
+		}
+	}
+
+/*
+ * Analysis of findString:
+ * n = size of the word
+ * m = length of the pattern
+ * f(n,m) = O(m logn)
+ *
+ * The binary search runs logn times. Each comparison starts from the smaller of the prefixes already known to match
+ * the left and right bounds of the search which skips characters that have already been compared. A second binary
+ * search finds the end of the range of suffixes that start with the pattern, and the smallest start in that range
+ * is found with the sparse table in O(BLOCK) time no matter how many times the pattern occurs(see analysis of
+ * smallestStart).
+ */
+//Function is used to determine if a substring is present within the word. Just like CompressedSuffixTrie
+//the index of the first occurrence is returned or -1 if the pattern doesn't occur
+	public int findString(String s) {
+		char[] ss = s.toCharArray();
+		int m = ss.length;
+		if(word==null || m==0) {
+			return -1;
+		}
+		int n = suffixArray.length;
+		int low = 0;
+		int high = n;
+		//the number of characters of the pattern that match the suffixes at the low and high bounds
+		int lowMatch = 0;
+		int highMatch = 0;
+
+		//find the first suffix which is greater than or equal to the pattern
+		while(low<high) {
+			int mid = (low+high)>>>1;
+			int start = suffixArray[mid];
+			int k = Math.min(lowMatch, highMatch);
+			while(k<m && start+k<n && word[start+k]==ss[k]) {
+				k++;
+			}
+			if(k==m) {
+				//the suffix starts with the pattern so the first one is at mid or before it
+				high = mid;
+				highMatch = k;
+			} else if(start+k==n || word[start+k]<ss[k]) {
+				low = mid+1;
+				lowMatch = k;
+			} else {
+				high = mid;
+				highMatch = k;
+			}
+		}
+		if(low==n || !startsWith(suffixArray[low], ss)) {
+			return -1;
+		}
+		//all the suffixes that start with the pattern are next to each other in the suffix array and the ones after
+		//them are greater than the pattern, so binary search for the first suffix that doesn't start with it
+		int end = n;
+		int from = low+1;
+		while(from<end) {
+			int mid = (from+end)>>>1;
+			if(startsWith(suffixArray[mid], ss)) {
+				from = mid+1;
+			} else {
+				end = mid;
+			}
+		}
+		return smallestStart(low, end);
+	}
+
+/*
+ * Analysis of smallestStart:
+ * f(n) = O(BLOCK)
+ *
+ * The entries before the first whole block and after the last whole block are at most 2*BLOCK entries which are
+ * looked at one by one. The whole blocks in between are covered by two overlapping runs of 2^j blocks from the sparse
+ * table.
+ */
+//the smallest start of the suffixes from suffixArray[lo] up to but not including suffixArray[hi]
+	private int smallestStart(int lo, int hi) {
+		int firstBlock = (lo+BLOCK-1)/BLOCK;
+		int lastBlock = hi/BLOCK;
+		int smallest = Integer.MAX_VALUE;
+		if(firstBlock>=lastBlock) {
+			for(int i=lo; i<hi; i++) {
+				smallest = Math.min(smallest, suffixArray[i]);
+			}
+			return smallest;
+		}
+		for(int i=lo; i<firstBlock*BLOCK; i++) {
+			smallest = Math.min(smallest, suffixArray[i]);
+		}
+		for(int i=lastBlock*BLOCK; i<hi; i++) {
+			smallest = Math.min(smallest, suffixArray[i]);
+		}
+		int blocks = lastBlock-firstBlock;
+		int j = 31-Integer.numberOfLeadingZeros(blocks);
+		smallest = Math.min(smallest, blockMin[j][firstBlock]);
+		smallest = Math.min(smallest, blockMin[j][lastBlock-(1<<j)]);
+		return smallest;
+	}
+
+/*
+ * Analysis of buildBlockMin:
+ * n = size of the word
+ * f(n) = O(n)
+ *
+ * Finding the smallest start in each block looks at every entry once. There are n/BLOCK blocks and log(n/BLOCK)
+ * levels above them which each take one pass over the blocks, and log(n/BLOCK) < BLOCK for any word that fits in an
+ * array.
+ */
+//the sparse table of the smallest start in each run of 2^j whole blocks of the suffix array
+	private static int[][] buildBlockMin(int[] sa) {
+		int blocks = sa.length/BLOCK;
+		int levels = 1;
+		while((1<<levels)<=blocks) {
+			levels++;
+		}
+		int[][] table = new int[levels][];
+		table[0] = new int[blocks];
+		for(int b=0; b<blocks; b++) {
+			int smallest = sa[b*BLOCK];
+			for(int i=b*BLOCK+1; i<(b+1)*BLOCK; i++) {
+				smallest = Math.min(smallest, sa[i]);
+			}
+			table[0][b] = smallest;
+		}
+		for(int j=1; j<levels; j++) {
+			int half = 1<<(j-1);
+			table[j] = new int[blocks-(1<<j)+1];
+			for(int b=0; b<table[j].length; b++) {
+				table[j][b] = Math.min(table[j-1][b], table[j-1][b+half]);
+			}
+		}
+		return table;
+	}
+
+//checks whether the suffix that begins at start has the pattern as a prefix
+	private boolean startsWith(int start, char[] ss) {
+		if(start+ss.length>word.length) {
+			return false;
+		}
+		for(int i=0; i<ss.length; i++) {
+			if(word[start+i]!=ss[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+/*
+ * Analysis of sais:
+ * n = size of s
+ * f(n) = O(n)
+ *
+ * Each level of SA-IS does a constant number of linear passes (classifying, bucketing, inducing and naming).
+ * The reduced problem has at most half as many characters so the total is n + n/2 + n/4 + ... = O(n)
+ */
+//SA-IS suffix array construction. s must end with a unique 0 and every other value must be in 1..k
+	private static void sais(int[] s, int[] sa, int n, int k) {
+		//t[i] is true if the suffix at i is S-type(smaller than the suffix after it) and false if it is L-type
+		boolean[] t = new boolean[n];
+		int[] bucket = new int[k+1];
+
+		t[n-1] = true;
+		for(int i=n-2; i>=0; i--) {
+			t[i] = s[i]<s[i+1] || (s[i]==s[i+1] && t[i+1]);
+		}
+
+		//stage 1: sort the LMS substrings by placing them at the ends of their buckets and inducing
+		getBuckets(s, bucket, n, k, true);
+		Arrays.fill(sa, 0, n, -1);
+		for(int i=1; i<n; i++) {
+			if(isLMS(t, i)) {
+				sa[--bucket[s[i]]] = i;
+			}
+		}
+		induceL(s, sa, t, bucket, n, k);
+		induceS(s, sa, t, bucket, n, k);
+
+		//move the sorted LMS substrings to the front of sa
+		int n1 = 0;
+		for(int i=0; i<n; i++) {
+			if(isLMS(t, sa[i])) {
+				sa[n1++] = sa[i];
+			}
+		}
+		//name the LMS substrings, equal substrings get the same name
+		Arrays.fill(sa, n1, n, -1);
+		int name = 0;
+		int prev = -1;
+		for(int i=0; i<n1; i++) {
+			int pos = sa[i];
+			boolean diff = false;
+			for(int d=0; d<n; d++) {
+				if(prev==-1 || s[pos+d]!=s[prev+d] || t[pos+d]!=t[prev+d]) {
+					diff = true;
+					break;
+				} else if(d>0 && (isLMS(t, pos+d) || isLMS(t, prev+d))) {
+					break;
+				}
+			}
+			if(diff) {
+				name++;
+				prev = pos;
+			}
+			sa[n1+(pos/2)] = name-1;
+		}
+		int[] s1 = new int[n1];
+		for(int i=n-1, j=n1-1; i>=n1; i--) {
+			if(sa[i]>=0) {
+				s1[j--] = sa[i];
+			}
+		}
+
+		//stage 2: sort the reduced string, recursing if the names are not yet unique
+		int[] sa1 = new int[n1];
+		if(name<n1) {
+			sais(s1, sa1, n1, name-1);
+		} else {
+			for(int i=0; i<n1; i++) {
+				sa1[s1[i]] = i;
+			}
+		}
+
+		//stage 3: the order of the LMS suffixes induces the order of every other suffix
+		getBuckets(s, bucket, n, k, true);
+		for(int i=1, j=0; i<n; i++) {
+			if(isLMS(t, i)) {
+				s1[j++] = i;
+			}
+		}
+		for(int i=0; i<n1; i++) {
+			sa1[i] = s1[sa1[i]];
+		}
+		Arrays.fill(sa, 0, n, -1);
+		for(int i=n1-1; i>=0; i--) {
+			int j = sa1[i];
+			sa[--bucket[s[j]]] = j;
+		}
+		induceL(s, sa, t, bucket, n, k);
+		induceS(s, sa, t, bucket, n, k);
+	}
+
+//a suffix is a leftmost S-type(LMS) suffix if it is S-type and the suffix before it is L-type
+	private static boolean isLMS(boolean[] t, int i) {
+		return i>0 && t[i] && !t[i-1];
+	}
+
+//compute the start or the end of the bucket of every character
+	private static void getBuckets(int[] s, int[] bucket, int n, int k, boolean end) {
+		int sum = 0;
+		Arrays.fill(bucket, 0);
+		for(int i=0; i<n; i++) {
+			bucket[s[i]]++;
+		}
+		for(int i=0; i<=k; i++) {
+			sum += bucket[i];
+			bucket[i] = end ? sum : sum-bucket[i];
+		}
+	}
+
+//place the L-type suffixes at the starts of their buckets from left to right
+	private static void induceL(int[] s, int[] sa, boolean[] t, int[] bucket, int n, int k) {
+		getBuckets(s, bucket, n, k, false);
+		for(int i=0; i<n; i++) {
+			int j = sa[i]-1;
+			if(j>=0 && !t[j]) {
+				sa[bucket[s[j]]++] = j;
+			}
+		}
+	}
+
+//place the S-type suffixes at the ends of their buckets from right to left
+	private static void induceS(int[] s, int[] sa, boolean[] t, int[] bucket, int n, int k) {
+		getBuckets(s, bucket, n, k, true);
+		for(int i=n-1; i>=0; i--) {
+			int j = sa[i]-1;
+			if(j>=0 && t[j]) {
+				sa[--bucket[s[j]]] = j;
+			}
+		}
+	}
+
+}